@@ -0,0 +1,104 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Throughput of turning repository paths into artifacts, compared with the per file regular expression the
+ * uploader used before {@link ArtifactPathParser}.  The paths are generated in walk order, eight files per
+ * version directory, the way {@link RepositoryScanner} hands them over.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ArtifactPathParserBenchmark {
+
+    private static final String[] SUFFIXES = {".jar", ".jar.sha1", ".pom", ".pom.sha1", "-sources.jar",
+        "-sources.jar.sha1", "-javadoc.jar", "-javadoc.jar.sha1"};
+
+    @Param({"1000000"})
+    private int pathCount;
+
+    private File repositoryDirectory;
+    private File[] files;
+    private ArtifactPathParser artifactPathParser;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        repositoryDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "benchmark-repository").toFile();
+        files = new File[pathCount];
+        for (int i = 0; i < pathCount; i++) {
+            int versionDirectory = i / SUFFIXES.length;
+            String artifactId = "artifact-" + (versionDirectory / 10);
+            String version = "1." + (versionDirectory % 10);
+            files[i] = Paths.get(repositoryDirectory.getAbsolutePath(), "org", "example",
+                    "group" + (versionDirectory / 1000), artifactId, version,
+                    artifactId + "-" + version + SUFFIXES[i % SUFFIXES.length]).toFile();
+        }
+        artifactPathParser = new ArtifactPathParser(repositoryDirectory);
+    }
+
+    @Benchmark
+    public Artifact artifactPathParser() {
+        return artifactPathParser.parse(nextFile());
+    }
+
+    @Benchmark
+    public Artifact regularExpressionPerFile() {
+        return parseWithRegularExpression(nextFile());
+    }
+
+    private File nextFile() {
+        File file = files[next];
+        next = next + 1 == files.length ? 0 : next + 1;
+        return file;
+    }
+
+    private Artifact parseWithRegularExpression(final File file) {
+        try {
+            final File parentDir = file.getParentFile();
+            final File artifactIdDirectory = parentDir.getParentFile();
+            final String version = parentDir.getName();
+            final String artifactId = artifactIdDirectory.getName();
+
+            final Pattern artifactPattern = Pattern.compile("^" + artifactId
+                    + "-" + version + "-{0,1}([^.][\\S]+?){0,1}\\.(\\S+){1}$");
+
+            final Matcher matcher = artifactPattern.matcher(file.getName());
+            if (matcher.matches()) {
+                final String classifier = matcher.group(1);
+                final String extension = matcher.group(2);
+                final String groupId = artifactIdDirectory.getParentFile().toPath().toString()
+                        .replaceAll(repositoryDirectory.toPath().toString(), "")
+                        .substring(1).replaceAll("/", ".");
+                return new DefaultArtifact(groupId, artifactId, version, "runtime",
+                        extension, classifier, new DefaultArtifactHandler(extension));
+            }
+            return null;
+        } catch (Exception t) {
+            return null;
+        }
+    }
+}
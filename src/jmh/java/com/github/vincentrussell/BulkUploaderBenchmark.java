@@ -0,0 +1,116 @@
+package com.github.vincentrussell;
+
+import me.alexpanov.net.FreePortFinder;
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
+import org.apache.maven.artifact.repository.layout.DefaultRepositoryLayout;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.testing.SilentLog;
+import org.apache.maven.shared.transfer.artifact.deploy.ArtifactDeployer;
+import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
+import org.eclipse.jetty.ee10.servlet.ServletHolder;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end {@link BulkUploader#execute()} of a generated repository into an in-process Jetty server running the
+ * {@link BulkImportMojoTest.NexusServlet} stand-in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BulkUploaderBenchmark {
+
+    @Param({"50"})
+    private int artifactCount;
+
+    @Param({"2"})
+    private int versionCount;
+
+    @Param({"2000"})
+    private int fileSize;
+
+    @Param({"1", "4"})
+    private int threads;
+
+    private final MavenHarness mavenHarness = new MavenHarness();
+    private File workDirectory;
+    private File repositoryDirectory;
+    private File remoteDirectory;
+    private Server jettyServer;
+    private int httpPort;
+    private MavenSession mavenSession;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        workDirectory = Files.createTempDirectory("uploader-benchmark").toFile();
+        repositoryDirectory = new File(workDirectory, "repository");
+        remoteDirectory = new File(workDirectory, "remote");
+        SyntheticRepository.create(repositoryDirectory, artifactCount, versionCount, fileSize);
+
+        httpPort = FreePortFinder.findFreeLocalPort();
+        jettyServer = new Server();
+        ServerConnector httpConnector = new ServerConnector(jettyServer);
+        httpConnector.setPort(httpPort);
+        jettyServer.setConnectors(new Connector[]{httpConnector});
+        ServletContextHandler servletHandler = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
+        servletHandler.addServlet(new ServletHolder(new BulkImportMojoTest.NexusServlet(remoteDirectory)),
+                "/repository/thirdparty/*");
+        jettyServer.setHandler(servletHandler);
+        jettyServer.start();
+
+        mavenHarness.start();
+        mavenSession = mavenHarness.createSession(new File(workDirectory, "local"));
+    }
+
+    @Setup(Level.Iteration)
+    public void cleanRemote() throws IOException {
+        FileUtils.deleteDirectory(remoteDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        mavenHarness.stop();
+        jettyServer.stop();
+        FileUtils.deleteDirectory(workDirectory);
+    }
+
+    @Benchmark
+    public boolean execute() throws Exception {
+        return new BulkUploader.Builder()
+                .setDeploymentType(DeploymentType.RELEASE_ONLY)
+                .setRepositoryDirectory(repositoryDirectory)
+                .setArtifactRepository(new MavenArtifactRepository("thirdparty",
+                        "http://localhost:" + httpPort + "/repository/thirdparty/", new DefaultRepositoryLayout(),
+                        new ArtifactRepositoryPolicy(), new ArtifactRepositoryPolicy()))
+                .setMavenSession(mavenSession)
+                .setArtifactDeployer(mavenHarness.component(ArtifactDeployer.class))
+                .setThreads(threads)
+                .setLogger(new SilentLog())
+                .build()
+                .execute();
+    }
+}
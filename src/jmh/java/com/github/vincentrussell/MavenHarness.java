@@ -0,0 +1,38 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.testing.AbstractMojoTestCase;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.internal.impl.SimpleLocalRepositoryManagerFactory;
+import org.eclipse.aether.repository.LocalRepository;
+
+import java.io.File;
+
+/**
+ * Boots the container of the plugin testing harness outside of JUnit so benchmarks can deploy with the real
+ * maven components.
+ */
+public final class MavenHarness extends AbstractMojoTestCase {
+
+    public void start() throws Exception {
+        setUp();
+    }
+
+    public void stop() throws Exception {
+        tearDown();
+    }
+
+    public <T> T component(final Class<T> type) throws Exception {
+        return lookup(type);
+    }
+
+    public MavenSession createSession(final File localRepositoryDirectory) throws Exception {
+        MavenSession session = newMavenSession(new MavenProject());
+        DefaultRepositorySystemSession repositorySession =
+                (DefaultRepositorySystemSession) session.getRepositorySession();
+        repositorySession.setLocalRepositoryManager(new SimpleLocalRepositoryManagerFactory()
+                .newInstance(repositorySession, new LocalRepository(localRepositoryDirectory)));
+        return session;
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time to walk a generated repository, with and without turning every file into an artifact, on one thread and
+ * with a parallel walk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RepositoryScannerBenchmark {
+
+    @Param({"1000"})
+    private int artifactCount;
+
+    @Param({"5"})
+    private int versionCount;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private File repositoryDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        repositoryDirectory = Files.createTempDirectory("scanner-benchmark").toFile();
+        SyntheticRepository.create(repositoryDirectory, artifactCount, versionCount, 16);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileUtils.deleteDirectory(repositoryDirectory);
+    }
+
+    @Benchmark
+    public long walk() throws IOException {
+        AtomicLong fileCount = new AtomicLong();
+        new RepositoryScanner(repositoryDirectory, null, null, parallelism).scan((directory, files) -> {
+            fileCount.addAndGet(files.size());
+            return true;
+        });
+        return fileCount.get();
+    }
+
+    @Benchmark
+    public long walkAndParse() throws IOException {
+        ArtifactPathParser artifactPathParser = new ArtifactPathParser(repositoryDirectory);
+        AtomicLong artifactCount = new AtomicLong();
+        new RepositoryScanner(repositoryDirectory, null, null, parallelism).scan((directory, files) -> {
+            for (File file : files) {
+                if (artifactPathParser.parse(file) != null) {
+                    artifactCount.incrementAndGet();
+                }
+            }
+            return true;
+        });
+        return artifactCount.get();
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Generates a maven2 style repository with the same files per version that the mojo tests simulate.
+ */
+public final class SyntheticRepository {
+
+    private static final String[] SUFFIXES = {".jar", ".jar.sha1", ".pom", ".pom.sha1", "-sources.jar",
+        "-sources.jar.sha1", "-javadoc.jar", "-javadoc.jar.sha1"};
+
+    private SyntheticRepository() {
+    }
+
+    /**
+     * @param artifactCount number of groupId:artifactId directories, spread over groups of 100 artifacts
+     * @param versionCount  number of release versions per artifact
+     * @param fileSize      size in bytes of every generated file
+     */
+    public static void create(final File repositoryDirectory, final int artifactCount, final int versionCount,
+                              final int fileSize) throws IOException {
+        Random random = new Random(artifactCount);
+        byte[] content = new byte[fileSize];
+        for (int artifact = 0; artifact < artifactCount; artifact++) {
+            String artifactId = "artifact-" + artifact;
+            for (int version = 0; version < versionCount; version++) {
+                String versionName = "1." + version;
+                File versionDirectory = Paths.get(repositoryDirectory.getAbsolutePath(), "org", "example",
+                        "group" + (artifact / 100), artifactId, versionName).toFile();
+                for (String suffix : SUFFIXES) {
+                    random.nextBytes(content);
+                    FileUtils.writeByteArrayToFile(new File(versionDirectory,
+                            artifactId + "-" + versionName + suffix), content);
+                }
+            }
+        }
+    }
+}
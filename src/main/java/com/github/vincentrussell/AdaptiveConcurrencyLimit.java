@@ -0,0 +1,94 @@
+package com.github.vincentrussell;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Additive increase, multiplicative decrease limit for the number of deploy requests in flight.  The limit grows
+ * by one per successful request until the repository first pushes back (slow start) and by one per limit's worth
+ * of successful requests after that.  It is halved when the repository answers 429, 502, 503 or 504 or a request
+ * times out and reduced a little when the latency of recent requests rises well above the long term latency, which
+ * is how a repository manager usually announces that it is getting saturated before it starts rejecting requests.
+ * Latency is taken per request plus one per MiB uploaded, so large files do not look like an overloaded server.
+ * Requests that were already in flight when the limit was reduced cannot reduce it again.
+ */
+final class AdaptiveConcurrencyLimit {
+
+    static final double BACKOFF_RATIO = 0.5;
+    static final double LATENCY_BACKOFF_RATIO = 0.9;
+    static final double LATENCY_TOLERANCE = 2.0;
+
+    private static final double SHORT_TERM_WEIGHT = 0.5;
+    private static final double LONG_TERM_WEIGHT = 0.02;
+    private static final long BYTES_PER_UNIT = 1024 * 1024;
+
+    private final int maxLimit;
+    private double limit;
+    private boolean slowStart = true;
+    private int inFlight;
+    private long issued;
+    private long lastDecrease = -1;
+    private double shortTermLatency = -1;
+    private double longTermLatency = -1;
+
+    AdaptiveConcurrencyLimit(final int initialLimit, final int maxLimit) {
+        isTrue(initialLimit > 0, "initialLimit must be greater than 0 but was %d", initialLimit);
+        isTrue(maxLimit >= initialLimit, "maxLimit must be at least %d but was %d", initialLimit, maxLimit);
+        this.limit = initialLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Waits until fewer requests than the limit are in flight.
+     *
+     * @return the ticket to hand to {@link #release(long, long, long, boolean)} once the request has finished
+     */
+    synchronized long acquire() throws InterruptedException {
+        while (inFlight >= getLimit()) {
+            wait();
+        }
+        inFlight++;
+        return issued++;
+    }
+
+    /**
+     * @param ticket what {@link #acquire()} returned for the request
+     * @param latencyNanos how long the request took
+     * @param bytes number of bytes the request uploaded
+     * @param overloaded whether the repository rejected the request because it is overloaded or it timed out
+     */
+    synchronized void release(final long ticket, final long latencyNanos, final long bytes,
+                              final boolean overloaded) {
+        inFlight--;
+        boolean mayDecrease = ticket > lastDecrease;
+        if (overloaded) {
+            if (mayDecrease) {
+                decrease(BACKOFF_RATIO);
+            }
+        } else {
+            double latency = latencyNanos / (1 + (double) bytes / BYTES_PER_UNIT);
+            shortTermLatency = shortTermLatency < 0 ? latency
+                    : shortTermLatency + SHORT_TERM_WEIGHT * (latency - shortTermLatency);
+            longTermLatency = longTermLatency < 0 ? latency
+                    : longTermLatency + LONG_TERM_WEIGHT * (latency - longTermLatency);
+            if (shortTermLatency > LATENCY_TOLERANCE * longTermLatency) {
+                if (mayDecrease) {
+                    decrease(LATENCY_BACKOFF_RATIO);
+                }
+            } else if ((inFlight + 1) * 2 >= limit) {
+                //only grow while at least half of the limit is in use, otherwise it is not what holds us back
+                limit = Math.min(maxLimit, limit + (slowStart ? 1 : 1 / limit));
+            }
+        }
+        notifyAll();
+    }
+
+    private void decrease(final double ratio) {
+        slowStart = false;
+        limit = Math.max(1, limit * ratio);
+        lastDecrease = issued - 1;
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Turns files laid out like a maven2 repository
+ * (group/id/dirs/artifactId/version/artifactId-version[-classifier].extension) into artifacts.  The path is
+ * compared segment by segment instead of with a regular expression, the coordinates of recently seen version
+ * directories are cached and one artifact handler is shared per extension.
+ */
+final class ArtifactPathParser {
+
+    static final int DEFAULT_CACHE_SIZE = 256;
+
+    private static final VersionDirectory NOT_A_VERSION_DIRECTORY = new VersionDirectory(null, null, null, null);
+
+    private final Path repositoryDirectory;
+    private final Map<String, ArtifactHandler> artifactHandlers = new ConcurrentHashMap<>();
+    private final Map<Path, VersionDirectory> versionDirectories;
+
+    ArtifactPathParser(final File repositoryDirectory) {
+        this(repositoryDirectory, DEFAULT_CACHE_SIZE);
+    }
+
+    ArtifactPathParser(final File repositoryDirectory, final int cacheSize) {
+        notNull(repositoryDirectory, "repositoryDirectory is null");
+        isTrue(cacheSize > 0, "cacheSize must be greater than 0 but was %d", cacheSize);
+        this.repositoryDirectory = repositoryDirectory.toPath().toAbsolutePath().normalize();
+        this.versionDirectories = Collections.synchronizedMap(new LinkedHashMap<>(cacheSize, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Path, VersionDirectory> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * @return the artifact stored in the file or null when the file does not follow the repository layout
+     */
+    Artifact parse(final File file) {
+        return parse(file.toPath());
+    }
+
+    /**
+     * @return the artifact stored in the file or null when the file does not follow the repository layout
+     */
+    Artifact parse(final Path file) {
+        Path parent = file.getParent();
+        Path fileName = file.getFileName();
+        if (parent == null || fileName == null) {
+            return null;
+        }
+        VersionDirectory versionDirectory = getVersionDirectory(parent);
+        if (versionDirectory == NOT_A_VERSION_DIRECTORY) {
+            return null;
+        }
+
+        String name = fileName.toString();
+        String prefix = versionDirectory.filePrefix();
+        int prefixLength = prefix.length();
+        if (name.length() < prefixLength + 2 || !name.startsWith(prefix)) {
+            return null;
+        }
+
+        String classifier;
+        String extension;
+        char separator = name.charAt(prefixLength);
+        if (separator == '.') {
+            classifier = null;
+            extension = name.substring(prefixLength + 1);
+        } else if (separator == '-') {
+            int dot = name.indexOf('.', prefixLength + 1);
+            if (dot <= prefixLength + 1 || dot == name.length() - 1) {
+                return null;
+            }
+            classifier = name.substring(prefixLength + 1, dot);
+            extension = name.substring(dot + 1);
+        } else {
+            return null;
+        }
+
+        if (containsWhitespace(classifier) || containsWhitespace(extension)) {
+            return null;
+        }
+
+        return new DefaultArtifact(versionDirectory.groupId(), versionDirectory.artifactId(),
+                versionDirectory.version(), "runtime", extension, classifier, getArtifactHandler(extension));
+    }
+
+    ArtifactHandler getArtifactHandler(final String extension) {
+        return artifactHandlers.computeIfAbsent(extension, DefaultArtifactHandler::new);
+    }
+
+    private VersionDirectory getVersionDirectory(final Path directory) {
+        VersionDirectory versionDirectory = versionDirectories.get(directory);
+        if (versionDirectory == null) {
+            versionDirectory = createVersionDirectory(directory);
+            versionDirectories.put(directory, versionDirectory);
+        }
+        return versionDirectory;
+    }
+
+    private VersionDirectory createVersionDirectory(final Path directory) {
+        Path versionDirectory = directory.toAbsolutePath().normalize();
+        Path artifactIdDirectory = versionDirectory.getParent();
+        Path groupIdDirectory = artifactIdDirectory != null ? artifactIdDirectory.getParent() : null;
+        if (groupIdDirectory == null || !groupIdDirectory.startsWith(repositoryDirectory)
+                || groupIdDirectory.getNameCount() <= repositoryDirectory.getNameCount()) {
+            return NOT_A_VERSION_DIRECTORY;
+        }
+
+        StringBuilder groupId = new StringBuilder();
+        for (int i = repositoryDirectory.getNameCount(); i < groupIdDirectory.getNameCount(); i++) {
+            if (groupId.length() > 0) {
+                groupId.append('.');
+            }
+            groupId.append(groupIdDirectory.getName(i));
+        }
+        String artifactId = artifactIdDirectory.getFileName().toString();
+        String version = versionDirectory.getFileName().toString();
+        return new VersionDirectory(groupId.toString(), artifactId, version, artifactId + "-" + version);
+    }
+
+    private static boolean containsWhitespace(final String value) {
+        if (value == null) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.isWhitespace(value.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record VersionDirectory(String groupId, String artifactId, String version, String filePrefix) {
+    }
+}
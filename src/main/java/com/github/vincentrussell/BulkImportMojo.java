@@ -1,5 +1,6 @@
 package com.github.vincentrussell;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.repository.ArtifactRepository;
 import org.apache.maven.artifact.repository.ArtifactRepositoryPolicy;
 import org.apache.maven.artifact.repository.MavenArtifactRepository;
@@ -10,14 +11,14 @@ import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.project.MavenProjectHelper;
-import org.apache.maven.project.ProjectBuilder;
 import org.apache.maven.shared.transfer.artifact.deploy.ArtifactDeployer;
-import org.apache.maven.shared.transfer.project.deploy.ProjectDeployer;
 
 import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Goal for bulk import into remote repository
@@ -25,6 +26,9 @@ import java.io.IOException;
 @Mojo(name = "bulk-import", requiresProject = false, threadSafe = true)
 public class BulkImportMojo extends AbstractMojo {
 
+    static final String REPORT_FILE_NAME = "bulk-import-report.json";
+    static final String MANIFEST_FILE_NAME = "bulk-import-manifest.txt";
+
     @Parameter(defaultValue = "${project}", required = true, readonly = true)
     private MavenProject project;
 
@@ -45,6 +49,15 @@ public class BulkImportMojo extends AbstractMojo {
     @Parameter(property = "repositoryUrl", required = true)
     private String repositoryUrl;
 
+    /**
+     * More repositories to deploy every artifact to, as id::url like the altDeploymentRepository of the
+     * maven-deploy-plugin (e.g. dr::https://dr.example.com/repository/thirdparty/).  The local repository is walked
+     * and read once and each repository is deployed to with threads of its own, so a slow repository only holds up
+     * the others once its queueSize is full.
+     */
+    @Parameter(property = "targetRepositories")
+    private List<String> targetRepositories;
+
     /**
      * Alternative location to upload artifacts from.  This directory must be in
      * the same format as a maven2 local repository.
@@ -83,34 +96,277 @@ public class BulkImportMojo extends AbstractMojo {
     @Parameter(defaultValue = "RELEASE_ONLY", required = true)
     private DeploymentType deploymentType;
 
-    @Inject
-    private ArtifactDeployer artifactDeployer;
+    /**
+     * Number of deployments that run in parallel.  Versions of the same groupId:artifactId are always
+     * deployed one after another so that the remote maven-metadata.xml is never updated concurrently.
+     */
+    @Parameter(property = "threads", defaultValue = "1")
+    private int threads;
 
     /**
-     * Used for attaching the artifacts to deploy to the project.
+     * Maximum number of artifact versions waiting for each thread before the repository scan pauses.
      */
-    @Inject
-    private MavenProjectHelper projectHelper;
+    @Parameter(property = "queueSize", defaultValue = "100")
+    private int queueSize;
 
     /**
-     * Used for creating the project to which the artifacts to deploy will be attached.
+     * Optional file that records every artifact version (groupId:artifactId:version) once it has been
+     * deployed.  Entries are appended as they complete so the journal survives a run that dies halfway.  A
+     * dryRun leaves it untouched.
      */
-    @Inject
-    private ProjectBuilder projectBuilder;
+    @Parameter(property = "journalFile")
+    private File journalFile;
+
+    /**
+     * Skip the artifact versions that the journalFile lists as deployed by a previous run, without contacting
+     * the remote repository.
+     */
+    @Parameter(property = "resume", defaultValue = "false")
+    private boolean resume;
+
+    /**
+     * Whether to ask the remote repository which artifacts it already has before uploading.  The options are
+     * NONE, EXISTENCE, which skips release files that answer a HEAD request, or CHECKSUM, which skips release
+     * files whose remote .sha1 matches the local one.
+     */
+    @Parameter(property = "syncMode", defaultValue = "NONE")
+    private SyncMode syncMode;
+
+    /**
+     * Whether to stop deploying local .sha1 and .md5 files as artifacts of their own.  When a release file has
+     * both and they match it, they are uploaded as its checksums instead of letting the deployer calculate them.
+     * The file is hashed in one memory mapped pass to check them, and a file whose checksum files do not match is
+     * uploaded with calculated checksums and counted as staleChecksumFiles.
+     */
+    @Parameter(property = "reuseChecksums", defaultValue = "false")
+    private boolean reuseChecksums;
+
+    /**
+     * Size in bytes from which the checksums of a release file are calculated by the plugin, with all configured
+     * algorithms in one pass over the memory mapped file, and uploaded as its checksum files instead of letting the
+     * deployer read the file once more to calculate them.  0 leaves all checksums to the deployer.
+     */
+    @Parameter(property = "largeFileThreshold", defaultValue = "0")
+    private long largeFileThreshold;
+
+    /**
+     * Number of times the deployment of an artifact version is tried again after a transient failure: a 5xx or
+     * 429 status, a timeout or a dropped connection.  Other failures, like a rejected password, are not retried.
+     */
+    @Parameter(property = "retries", defaultValue = "3")
+    private int retries;
+
+    /**
+     * Milliseconds to wait before the first retry.  The wait doubles with every further retry and a random
+     * part of it is used so that failed deployments do not all retry at the same moment.
+     */
+    @Parameter(property = "retryBackoff", defaultValue = "1000")
+    private long retryBackoff;
+
+    /**
+     * Upper limit in milliseconds for the wait between two retries.
+     */
+    @Parameter(property = "maxRetryBackoff", defaultValue = "60000")
+    private long maxRetryBackoff;
+
+    /**
+     * Number of artifact versions that may fail deployment after all retries before the run is aborted.  With
+     * -1 every version is attempted and the build fails at the end if any of them failed.
+     */
+    @Parameter(property = "failureBudget", defaultValue = "-1")
+    private int failureBudget;
+
+    /**
+     * Maximum number of HTTP requests per second sent to the remote repository by all threads together, or 0
+     * for no limit.
+     */
+    @Parameter(property = "maxRequestsPerSecond", defaultValue = "0")
+    private long maxRequestsPerSecond;
+
+    /**
+     * Maximum number of bytes per second uploaded to the remote repository by all threads together, or 0 for
+     * no limit.
+     */
+    @Parameter(property = "maxBytesPerSecond", defaultValue = "0")
+    private long maxBytesPerSecond;
+
+    /**
+     * Let the number of deployments in flight follow what the remote repository can take instead of always
+     * using all threads.  It starts at one, grows while requests succeed and latency stays flat, and is cut back
+     * on 429, 502, 503 or 504 responses, timeouts and rising latency.  threads is the upper limit.
+     */
+    @Parameter(property = "adaptiveConcurrency", defaultValue = "false")
+    private boolean adaptiveConcurrency;
+
+    /**
+     * Keep-alive connections the http transport pools for the repository host, shared by all threads for the
+     * whole run.  0 keeps the transport default of 50.  The pool is shared by all repositories of the run and holds
+     * at most twice this many connections in total, so targetRepositories do not multiply it.
+     */
+    @Parameter(property = "maxConnectionsPerRoute", defaultValue = "0")
+    private int maxConnectionsPerRoute;
+
+    /**
+     * Seconds a pooled connection is reused before it is closed.  0 keeps the transport default of 300.
+     */
+    @Parameter(property = "connectionMaxTtl", defaultValue = "0")
+    private int connectionMaxTtl;
+
+    /**
+     * Milliseconds to wait for a connection to the repository.  0 keeps the transport default.
+     */
+    @Parameter(property = "connectTimeout", defaultValue = "0")
+    private int connectTimeout;
 
     /**
-     * Component used to deploy project.
+     * Milliseconds to wait for data from the repository before a request fails.  0 keeps the transport default.
      */
+    @Parameter(property = "requestTimeout", defaultValue = "0")
+    private int requestTimeout;
+
+    /**
+     * Whether the requests that check what the repository already has (syncMode) may use HTTP/2, so that they
+     * share one multiplexed connection.  Uploads always use HTTP/1.1 because that is all the maven http transport
+     * speaks.
+     */
+    @Parameter(property = "http2", defaultValue = "false")
+    private boolean http2;
+
+    /**
+     * Url of a bulk import endpoint of the repository manager.  When it is set the release versions are streamed
+     * into zip archives of their files, each file followed by its checksum files, and every archive is sent to
+     * the endpoint in a single request instead of uploading the files one by one.  The endpoint unpacks the
+     * archive into the repository and is expected to update the maven-metadata.xml files itself.  Snapshots are
+     * still deployed file by file.  See bundleMethod and bundleHeaders for what the endpoint expects.
+     */
+    @Parameter(property = "bundleUrl")
+    private String bundleUrl;
+
+    /**
+     * Id of the server in the settings whose credentials the bundles are posted with.  Without it the bundles are
+     * posted with the credentials of repositoryId, which are only sent when bundleUrl has the same scheme, host and
+     * port as repositoryUrl.
+     */
+    @Parameter(property = "bundleServerId")
+    private String bundleServerId;
+
+    /**
+     * HTTP method the bundles are sent with, POST or PUT.
+     */
+    @Parameter(property = "bundleMethod", defaultValue = "POST")
+    private String bundleMethod;
+
+    /**
+     * More headers of the bundle requests, for the endpoints that need one to unpack the archive, like
+     * X-Explode-Archive: true of Artifactory.  A Content-Type header replaces application/zip.
+     */
+    @Parameter
+    private Map<String, String> bundleHeaders;
+
+    /**
+     * Size in bytes of the files of a bundle, before compression, from which the bundle is closed and posted.
+     */
+    @Parameter(property = "bundleSize", defaultValue = "67108864")
+    private long bundleSize;
+
+    /**
+     * Milliseconds between the progress lines logged during the deployment, or 0 to only log the summary at the
+     * end.  Per artifact messages are logged at debug level.
+     */
+    @Parameter(property = "progressInterval", defaultValue = "10000")
+    private long progressInterval;
+
+    /**
+     * Walk the repository a second time on a background thread to add up the size of the deployment, so that the
+     * progress lines show a percentage and an ETA.  The second walk lists every directory again, which adds up on
+     * network file systems.  A manifest is always used for the estimate since it is cheap to read.
+     */
+    @Parameter(property = "estimateSize", defaultValue = "false")
+    private boolean estimateSize;
+
+    /**
+     * Only scan the repository and write what would be deployed, with file sizes, totals and an estimate of the
+     * number of requests, to bulk-import-manifest.txt in outputDirectory.  Nothing is sent to the remote
+     * repository.
+     */
+    @Parameter(property = "dryRun", defaultValue = "false")
+    private boolean dryRun;
+
+    /**
+     * Manifest listing the artifact versions to deploy instead of walking repositoryBase, such as one written by
+     * dryRun or a part of it.  A line can also name just a version directory relative to repositoryBase.
+     */
+    @Parameter(property = "manifest")
+    private File manifest;
+
+    /**
+     * File that remembers the version directories deployed by earlier runs and to which repositories.  Directories
+     * whose modification time, total file size and newest file have not changed since they were deployed to every
+     * repository are only listed, so repeated runs over a repository that only gets a few new versions are fast.
+     */
+    @Parameter(property = "scanIndex")
+    private File scanIndex;
+
+    /**
+     * Only deploy the artifacts that match one of these groupId[:artifactId[:version]] patterns.  A plain groupId
+     * is a prefix that includes its sub groups as well, while an artifactId and version have to match exactly.  *
+     * and ? match within a groupId segment or coordinate and ** matches any number of groupId segments.
+     * Directories that cannot match are not walked at all.
+     */
+    @Parameter(property = "includes")
+    private List<String> includes;
+
+    /**
+     * Do not deploy the artifacts that match one of these groupId[:artifactId[:version]] patterns, written like
+     * includes.  The directories of excluded groupIds are not walked at all.
+     */
+    @Parameter(property = "excludes")
+    private List<String> excludes;
+
+    /**
+     * Number of directories of repositoryBase that are listed at the same time.  The default of 1 walks the
+     * repository on one thread, which is the fastest on a local disk.  Raise it when repositoryBase is on a network
+     * file system where every directory listing waits for a round trip.
+     */
+    @Parameter(property = "scanParallelism", defaultValue = "1")
+    private int scanParallelism;
+
+    /**
+     * Number of machines the import is split across.  Every artifact belongs to one shard, chosen by a stable
+     * hash of its groupId:artifactId, so all of its versions are deployed by the same machine and no two machines
+     * update the same maven-metadata.xml.  Each machine runs with the same shardCount and its own shardIndex.
+     */
+    @Parameter(property = "shardCount", defaultValue = "1")
+    private int shardCount;
+
+    /**
+     * The shard this machine deploys, from 0 to shardCount - 1.
+     */
+    @Parameter(property = "shardIndex", defaultValue = "0")
+    private int shardIndex;
+
     @Inject
-    private ProjectDeployer projectDeployer;
+    private ArtifactDeployer artifactDeployer;
 
     /**
-     * Location of the file.
+     * Directory the metrics report of every run (bulk-import-report.json) and the manifest of a dry run are
+     * written to.
      */
     @Parameter(defaultValue = "${project.build.directory}", property = "outputDir", required = true)
     private File outputDirectory;
 
     public void execute() throws MojoExecutionException {
+        List<ArtifactRepository> targetArtifactRepositories = new ArrayList<>();
+        if (targetRepositories != null) {
+            for (String targetRepository : targetRepositories) {
+                String[] idAndUrl = StringUtils.splitByWholeSeparator(StringUtils.trim(targetRepository), "::");
+                if (idAndUrl.length != 2) {
+                    throw new MojoExecutionException(String.format("target repository %s is not written as id::url",
+                            targetRepository));
+                }
+                targetArtifactRepositories.add(createDeploymentArtifactRepository(idAndUrl[0], idAndUrl[1]));
+            }
+        }
         BulkUploader bulkUploader = new BulkUploader.Builder()
                 .setDeploymentType(deploymentType)
                 .setRepositoryDirectory(repositoryBase != null ? repositoryBase : new File(localRepository.getBasedir()))
@@ -118,11 +374,41 @@ public class BulkImportMojo extends AbstractMojo {
                 .setGroupId(groupId)
                 .setArtifactId(artifactId)
                 .setArtifactRepository(createDeploymentArtifactRepository(repositoryId, repositoryUrl))
-                .setProjectDeployer(projectDeployer)
-                .setProjectBuilder(projectBuilder)
+                .setTargetRepositories(targetArtifactRepositories)
                 .setMavenSession(session)
-                .setProjectHelper(projectHelper)
                 .setArtifactDeployer(artifactDeployer)
+                .setThreads(threads)
+                .setQueueSize(queueSize)
+                .setJournalFile(journalFile)
+                .setResume(resume)
+                .setSyncMode(syncMode)
+                .setReuseChecksums(reuseChecksums)
+                .setLargeFileThreshold(largeFileThreshold)
+                .setRetries(retries)
+                .setRetryBackoff(retryBackoff)
+                .setMaxRetryBackoff(maxRetryBackoff)
+                .setFailureBudget(failureBudget)
+                .setMaxRequestsPerSecond(maxRequestsPerSecond)
+                .setMaxBytesPerSecond(maxBytesPerSecond)
+                .setAdaptiveConcurrency(adaptiveConcurrency)
+                .setTransportSettings(new TransportSettings(maxConnectionsPerRoute, connectionMaxTtl, connectTimeout,
+                        requestTimeout, http2))
+                .setBundleUrl(bundleUrl)
+                .setBundleServerId(bundleServerId)
+                .setBundleMethod(bundleMethod)
+                .setBundleHeaders(bundleHeaders)
+                .setBundleSize(bundleSize)
+                .setReportFile(new File(outputDirectory, REPORT_FILE_NAME))
+                .setProgressInterval(progressInterval)
+                .setEstimateSize(estimateSize)
+                .setManifestFile(manifest)
+                .setScanIndexFile(scanIndex)
+                .setIncludes(includes)
+                .setExcludes(excludes)
+                .setScanParallelism(scanParallelism)
+                .setShardIndex(shardIndex)
+                .setShardCount(shardCount)
+                .setDryRunManifestFile(dryRun ? new File(outputDirectory, MANIFEST_FILE_NAME) : null)
                 .setLogger(getLog())
                 .build();
 
@@ -3,43 +3,38 @@ package com.github.vincentrussell;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.ArtifactUtils;
-import org.apache.maven.artifact.DefaultArtifact;
-import org.apache.maven.artifact.handler.DefaultArtifactHandler;
 import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.repository.MavenArtifactRepository;
 import org.apache.maven.execution.MavenSession;
-import org.apache.maven.model.building.ModelBuildingException;
-import org.apache.maven.model.building.ModelSource;
-import org.apache.maven.model.building.StringModelSource;
 import org.apache.maven.plugin.logging.Log;
-import org.apache.maven.project.*;
+import org.apache.maven.project.ProjectBuildingRequest;
 import org.apache.maven.shared.transfer.artifact.deploy.ArtifactDeployer;
 import org.apache.maven.shared.transfer.artifact.deploy.ArtifactDeployerException;
-import org.apache.maven.shared.transfer.project.NoFileAssignedException;
-import org.apache.maven.shared.transfer.project.deploy.ProjectDeployer;
-import org.apache.maven.shared.transfer.project.deploy.ProjectDeployerRequest;
-import org.apache.maven.shared.utils.Os;
+import org.eclipse.aether.RepositorySystemSession;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.io.InterruptedIOException;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
 public class BulkUploader {
+
     private final ArtifactRepository artifactRepository;
-    private final ProjectDeployer projectDeployer;
-    private final ProjectBuilder projectBuilder;
+    private final List<ArtifactRepository> targetRepositories;
     private final MavenSession mavenSession;
-    private final MavenProjectHelper projectHelper;
     private final ArtifactDeployer artifactDeployer;
     private final DeploymentType deploymentType;
     private final Log log;
@@ -47,6 +42,44 @@ public class BulkUploader {
     private final String repositorySubDirectory;
     private final String groupId;
     private final String artifactid;
+    private final int threads;
+    private final int queueSize;
+    private final File journalFile;
+    private final boolean resume;
+    private final SyncMode syncMode;
+    private final boolean reuseChecksums;
+    private final int retries;
+    private final long retryBackoff;
+    private final long maxRetryBackoff;
+    private final int failureBudget;
+    private final long maxRequestsPerSecond;
+    private final long maxBytesPerSecond;
+    private final boolean adaptiveConcurrency;
+    private final File reportFile;
+    private final long progressInterval;
+    private final boolean estimateSize;
+    private final File dryRunManifestFile;
+    private final File manifestFile;
+    private final File scanIndexFile;
+    private final List<String> includes;
+    private final List<String> excludes;
+    private final int scanParallelism;
+    private final long largeFileThreshold;
+    private final TransportSettings transportSettings;
+    private final String bundleUrl;
+    private final String bundleServerId;
+    private final String bundleMethod;
+    private final Map<String, String> bundleHeaders;
+    private final long bundleSize;
+    private final int shardIndex;
+    private final int shardCount;
+    private volatile List<DeploymentTarget> targets;
+    private volatile DeploymentMetrics metrics;
+    private volatile CheckpointJournal checkpointJournal;
+    private volatile RetryPolicy retryPolicy;
+    private volatile ProgressReporter progressReporter;
+    private volatile ScanIndex scanIndex;
+    private volatile Shard shard;
 
     private BulkUploader(final Builder builder) {
         this.repositoryDirectory = builder.repositoryDirectory;
@@ -54,13 +87,42 @@ public class BulkUploader {
         this.groupId = builder.groupId;
         this.artifactid = builder.artifactId;
         this.artifactRepository = builder.artifactRepository;
-        this.projectDeployer = builder.projectDeployer;
-        this.projectBuilder = builder.projectBuilder;
+        this.targetRepositories = builder.targetRepositories;
         this.mavenSession = builder.mavenSession;
-        this.projectHelper = builder.projectHelper;
         this.artifactDeployer = builder.artifactDeployer;
         this.deploymentType = builder.deploymentType;
         this.log = builder.log;
+        this.threads = builder.threads;
+        this.queueSize = builder.queueSize;
+        this.journalFile = builder.journalFile;
+        this.resume = builder.resume;
+        this.syncMode = builder.syncMode;
+        this.reuseChecksums = builder.reuseChecksums;
+        this.retries = builder.retries;
+        this.retryBackoff = builder.retryBackoff;
+        this.maxRetryBackoff = builder.maxRetryBackoff;
+        this.failureBudget = builder.failureBudget;
+        this.maxRequestsPerSecond = builder.maxRequestsPerSecond;
+        this.maxBytesPerSecond = builder.maxBytesPerSecond;
+        this.adaptiveConcurrency = builder.adaptiveConcurrency;
+        this.reportFile = builder.reportFile;
+        this.progressInterval = builder.progressInterval;
+        this.estimateSize = builder.estimateSize;
+        this.dryRunManifestFile = builder.dryRunManifestFile;
+        this.manifestFile = builder.manifestFile;
+        this.scanIndexFile = builder.scanIndexFile;
+        this.includes = builder.includes;
+        this.excludes = builder.excludes;
+        this.scanParallelism = builder.scanParallelism;
+        this.largeFileThreshold = builder.largeFileThreshold;
+        this.transportSettings = builder.transportSettings;
+        this.bundleUrl = builder.bundleUrl;
+        this.bundleServerId = builder.bundleServerId;
+        this.bundleMethod = builder.bundleMethod;
+        this.bundleHeaders = builder.bundleHeaders != null ? Map.copyOf(builder.bundleHeaders) : Map.of();
+        this.bundleSize = builder.bundleSize;
+        this.shardIndex = builder.shardIndex;
+        this.shardCount = builder.shardCount;
     }
 
     public boolean execute() throws IOException {
@@ -68,17 +130,36 @@ public class BulkUploader {
         isTrue(repositoryDirectory.exists(), "%s does not exit directory", repositoryDirectory.getAbsolutePath());
         isTrue(repositoryDirectory.isDirectory(), "%s is not a directory", repositoryDirectory.getAbsolutePath());
         notNull(artifactRepository, "artifactRepository is null");
-        notNull(projectDeployer, "projectDeployer is null");
-        notNull(projectBuilder, "projectBuilder is null");
         notNull(mavenSession, "mavenSession is null");
-        notNull(projectHelper, "projectHelper is null");
         notNull(artifactDeployer, "artifactDeployer is null");
         notNull(deploymentType, "repositoryType is null");
+        isTrue(threads > 0, "threads must be greater than 0 but was %d", threads);
+        isTrue(queueSize > 0, "queueSize must be greater than 0 but was %d", queueSize);
+        isTrue(scanParallelism > 0, "scanParallelism must be greater than 0 but was %d", scanParallelism);
+        isTrue(!resume || journalFile != null, "resume requires a journalFile");
+        notNull(syncMode, "syncMode is null");
+        isTrue(failureBudget >= -1, "failureBudget must be -1 (unlimited) or more but was %d", failureBudget);
+        retryPolicy = new RetryPolicy(retries, retryBackoff, maxRetryBackoff);
+        isTrue(maxRequestsPerSecond >= 0, "maxRequestsPerSecond must not be negative but was %d",
+                maxRequestsPerSecond);
+        isTrue(maxBytesPerSecond >= 0, "maxBytesPerSecond must not be negative but was %d", maxBytesPerSecond);
+        isTrue(manifestFile == null || manifestFile.isFile(), "%s is not a file",
+                manifestFile != null ? manifestFile.getAbsolutePath() : null);
+        isTrue(progressInterval >= 0, "progressInterval must not be negative but was %d", progressInterval);
+        isTrue(bundleSize > 0, "bundleSize must be greater than 0 but was %d", bundleSize);
+        isTrue("POST".equals(bundleMethod) || "PUT".equals(bundleMethod), "bundleMethod must be POST or PUT but was %s",
+                bundleMethod);
+        shard = new Shard(shardIndex, shardCount);
+        final List<ArtifactRepository> repositories = getArtifactRepositories();
+        isTrue(bundleUrl == null || repositories.size() == 1,
+                "bundleUrl can not be combined with targetRepositories");
 
 
-        String protocol = artifactRepository.getProtocol();
-        if (StringUtils.isEmpty(protocol)) {
-            throw new IOException("No transfer protocol found.");
+        for (ArtifactRepository repository : repositories) {
+            String protocol = repository.getProtocol();
+            if (StringUtils.isEmpty(protocol)) {
+                throw new IOException("No transfer protocol found.");
+            }
         }
 
         File artifactsPath;
@@ -88,169 +169,800 @@ public class BulkUploader {
             artifactsPath = repositoryDirectory;
         }
 
-        List<File> artifactFiles;
-        try (Stream<Path> walk = Files.walk(artifactsPath.toPath())) {
-            artifactFiles = walk.map(Path::toFile).toList();
+        metrics = new DeploymentMetrics();
+        final ArtifactPathParser artifactPathParser = new ArtifactPathParser(repositoryDirectory);
+        final Set<String> completedVersions = resume ? CheckpointJournal.read(journalFile) : Set.of();
+        final boolean dryRun = dryRunManifestFile != null;
+        final boolean bundleMode = bundleUrl != null && !dryRun;
+        final PathFilter pathFilter = getPathFilter();
+        final PathFilter.State startState = pathFilter != null
+                ? pathFilter.getState(repositoryDirectory.toPath(), artifactsPath.toPath()) : null;
+        final ManifestScanner manifestScanner = manifestFile != null
+                ? new ManifestScanner(manifestFile, repositoryDirectory, pathFilter) : null;
+        final List<String> repositoryUrls = new ArrayList<>(repositories.size());
+        for (ArtifactRepository repository : repositories) {
+            repositoryUrls.add(repository.getUrl());
+        }
+        final ScanIndex index = scanIndexFile != null && manifestScanner == null
+                ? ScanIndex.load(scanIndexFile, repositoryDirectory, repositoryUrls) : null;
+        scanIndex = index;
+        final ProjectBuildingRequest tunedRequest = transportSettings != null
+                ? transportSettings.apply(mavenSession.getProjectBuildingRequest())
+                : mavenSession.getProjectBuildingRequest();
+        //a dry run only estimates the deployment to the first repository
+        final List<DeploymentTarget> deploymentTargets = new ArrayList<>(repositories.size());
+        targets = deploymentTargets;
+        try {
+            for (ArtifactRepository repository : dryRun ? repositories.subList(0, 1) : repositories) {
+                deploymentTargets.add(createTarget(repository, tunedRequest, artifactPathParser, dryRun, bundleMode));
+            }
+        } catch (IOException | RuntimeException e) {
+            close(deploymentTargets, tunedRequest);
+            throw e;
+        }
+        final DeploymentSummary summary = deploymentTargets.get(0).getSummary();
+        final ProgressReporter.SizeEstimate sizeEstimate = manifestScanner != null ? manifestScanner::estimateSize
+                : estimateSize ? ProgressReporter.directorySize(repositoryDirectory, artifactsPath, startState, shard,
+                        index) : null;
+        try (ProgressReporter progress = progressInterval > 0
+                ? new ProgressReporter(log, summary).start(sizeEstimate, progressInterval) : null;
+             CheckpointJournal journal = journalFile != null && !dryRun ? CheckpointJournal.open(journalFile) : null;
+             DeploymentManifest manifest = dryRun ? DeploymentManifest.create(dryRunManifestFile, repositoryDirectory,
+                     Checksums.getConfiguredAlgorithms(mavenSession.getRepositorySession(),
+                             artifactRepository.getId()).size(), !SyncMode.NONE.equals(syncMode)) : null) {
+            checkpointJournal = journal;
+            progressReporter = progress;
+            final long scanStart = System.nanoTime();
+            final RepositoryScanner.DirectoryConsumer consumer = (directory, files) -> {
+                final long parseStart = System.nanoTime();
+                final boolean otherShard = !shard.containsDirectory(repositoryDirectory.toPath(), directory.toPath());
+                if (otherShard && log.isDebugEnabled()) {
+                    log.debug(String.format("%s belongs to another shard than %d of %d", directory,
+                            shard.getIndex(), shard.getCount()));
+                }
+                List<Artifact> artifacts = new ArrayList<>();
+                for (final File file : files) {
+                    Artifact artifact = otherShard ? null : artifactPathParser.parse(file);
+                    FilterReason reason = otherShard ? FilterReason.SHARD
+                            : artifact != null ? getFilterReason(artifact) : FilterReason.NOT_AN_ARTIFACT;
+                    if (reason == null) {
+                        artifact.setFile(file);
+                        artifacts.add(artifact);
+                    } else {
+                        for (DeploymentTarget target : deploymentTargets) {
+                            target.getSummary().filtered(reason);
+                        }
+                        if (progress != null) {
+                            progress.completed(file.length());
+                        }
+                    }
+                }
+                if (progress != null) {
+                    progress.scanned(files.size());
+                }
+                metrics.record(DeploymentMetrics.Phase.PARSE, System.nanoTime() - parseStart);
+                if (!artifacts.isEmpty()) {
+                    final PendingVersion version = new PendingVersion(artifacts, deploymentTargets.size());
+                    if (completedVersions.contains(version.getGav())) {
+                        if (log.isDebugEnabled()) {
+                            log.debug(String.format("%s was already deployed according to the journal",
+                                    version.getGav()));
+                        }
+                        for (DeploymentTarget target : deploymentTargets) {
+                            target.getSummary().resumed(version.getGav());
+                        }
+                        if (index != null) {
+                            index.completed(directory.toPath(), ScanIndex.Status.DEPLOYED);
+                        }
+                        completed(artifacts);
+                        return !isAborted(deploymentTargets);
+                    }
+                    if (manifest != null) {
+                        manifest.add(directory, artifacts);
+                        completed(artifacts);
+                        return true;
+                    }
+                    final long queueStart = System.nanoTime();
+                    try {
+                        for (DeploymentTarget target : deploymentTargets) {
+                            submit(target, version, bundleMode);
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("bulk deployment was interrupted");
+                    }
+                    metrics.record(DeploymentMetrics.Phase.QUEUE, System.nanoTime() - queueStart);
+                }
+                return !isAborted(deploymentTargets);
+            };
+            if (manifestScanner != null) {
+                manifestScanner.scan(consumer);
+                metrics.recordScan(System.nanoTime() - scanStart);
+            } else {
+                //the scanner times the walk itself because with several threads the parse and queue phases are
+                //summed over them and exceed the time of the scan
+                RepositoryScanner scanner = new RepositoryScanner(repositoryDirectory, artifactsPath, index,
+                        startState, shard, scanParallelism);
+                scanner.scan(consumer);
+                metrics.record(DeploymentMetrics.Phase.WALK, scanner.getWalkNanos());
+            }
+            for (DeploymentTarget target : deploymentTargets) {
+                submit(target, target.takeOpenBundle());
+                if (index != null) {
+                    target.getSummary().unchanged(index.getUnchangedCount());
+                }
+            }
+            for (DeploymentTarget target : deploymentTargets) {
+                target.getExecutor().awaitCompletion();
+            }
+            if (manifest != null) {
+                manifest.close();
+                log.info(String.format("dry run: %d artifact version(s) with %d file(s) and %d byte(s) would be "
+                                + "deployed with about %d request(s), see %s", manifest.getVersionCount(),
+                        manifest.getFileCount(), manifest.getByteCount(), manifest.getRequestCount(),
+                        dryRunManifestFile.getAbsolutePath()));
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("bulk deployment was interrupted", e);
+        } finally {
+            checkpointJournal = null;
+            progressReporter = null;
+            scanIndex = null;
+            close(deploymentTargets, tunedRequest);
+            if (index != null && !dryRun) {
+                try {
+                    index.save();
+                } catch (IOException e) {
+                    log.warn(String.format("unable to save the scan index to %s because %s",
+                            scanIndexFile.getAbsolutePath(), e.getMessage()));
+                }
+            }
         }
 
-        for (final File file : artifactFiles) {
-            if (file.isFile()) {
-                Artifact artifact = getArtifact(file);
-                if (artifact != null) {
-                    boolean isSnapshot = ArtifactUtils.isSnapshot(artifact.getVersion());
+        metrics.finish();
+        long failedCount = 0;
+        Exception firstFailure = null;
+        List<String> failedTargets = new ArrayList<>();
+        for (DeploymentTarget target : deploymentTargets) {
+            if (deploymentTargets.size() > 1) {
+                log.info(String.format("deployment to %s:", target.getId()));
+            }
+            if (target.getConcurrencyLimit() != null) {
+                log.info(String.format("adaptive concurrency ended with %d of at most %d deployments in flight",
+                        target.getConcurrencyLimit().getLimit(), threads));
+            }
+            DeploymentSummary targetSummary = target.getSummary();
+            targetSummary.log(log);
+            log.info(String.format("%d byte(s) deployed in %d ms (%.1f KiB/s)", targetSummary.getDeployedBytes(),
+                    TimeUnit.NANOSECONDS.toMillis(metrics.getDurationNanos()),
+                    targetSummary.getDeployedBytes() / 1024.0 / Math.max(metrics.getDurationNanos() / 1e9, 0.001)));
+            if (targetSummary.hasFailures()) {
+                failedCount += targetSummary.getFailedCount();
+                failedTargets.add(target.getId());
+                firstFailure = firstFailure != null ? firstFailure : target.getFirstFailure();
+            }
+        }
+        if (reportFile != null) {
+            try {
+                metrics.writeReport(reportFile, getSummaries(), threads);
+                log.info(String.format("metrics report written to %s", reportFile.getAbsolutePath()));
+            } catch (IOException e) {
+                log.warn(String.format("unable to write the metrics report to %s because %s",
+                        reportFile.getAbsolutePath(), e.getMessage()));
+            }
+        }
+        if (!failedTargets.isEmpty()) {
+            throw new IOException(String.format("%d artifact version(s) failed deployment", failedCount)
+                    + (deploymentTargets.size() > 1 ? " to " + String.join(", ", failedTargets) : ""), firstFailure);
+        }
+        return true;
+    }
 
-                    //skip sha1 and md5 for snapshots
-                    if (isSnapshot && isHashFile(artifact.getType())) {
-                        continue;
-                    }
+    /**
+     * @return the summary of the deployment to the repository, or to the first one when there are several
+     */
+    public DeploymentSummary getSummary() {
+        return targets.get(0).getSummary();
+    }
 
-                    if (!DeploymentType.SNAPSHOT_AND_RELEASE.equals(deploymentType)
-                            && isSnapshot && DeploymentType.RELEASE_ONLY.equals(deploymentType)) {
-                        log.info(String.format("artifact %s is considered to be a snapshot and will not be deployed", artifact));
-                        continue;
-                    } else if (!DeploymentType.SNAPSHOT_AND_RELEASE.equals(deploymentType)
-                            && !isSnapshot && DeploymentType.SNAPSHOT_ONLY.equals(deploymentType)) {
-                        log.info(String.format("artifact %s is considered to be a release and will not be deployed", artifact));
-                        continue;
-                    }
+    /**
+     * @return the summary of the deployment to each repository by repository id
+     */
+    public Map<String, DeploymentSummary> getSummaries() {
+        Map<String, DeploymentSummary> summaries = new LinkedHashMap<>();
+        for (DeploymentTarget target : targets) {
+            summaries.put(target.getId(), target.getSummary());
+        }
+        return summaries;
+    }
 
-                    if (StringUtils.isNotBlank(groupId) && !artifact.getGroupId().equals(groupId)) {
-                        log.info(String.format("artifact group %s does not match required group %s",
-                                artifact.getGroupId(), groupId));
-                        continue;
-                    }
+    DeploymentMetrics getMetrics() {
+        return metrics;
+    }
 
-                    if (StringUtils.isNotBlank(artifactid) && !artifact.getArtifactId().equals(artifactid)) {
-                        log.info(String.format("artifact %s does not match required group %s",
-                                artifact.getArtifactId(), artifactid));
-                        continue;
-                    }
+    /**
+     * @return the repository and the target repositories, which all get every artifact
+     */
+    private List<ArtifactRepository> getArtifactRepositories() {
+        List<ArtifactRepository> repositories = new ArrayList<>();
+        repositories.add(artifactRepository);
+        if (targetRepositories != null) {
+            repositories.addAll(targetRepositories);
+        }
+        Set<String> ids = new HashSet<>();
+        for (ArtifactRepository repository : repositories) {
+            notNull(repository, "target repository is null");
+            isTrue(ids.add(repository.getId()), "repository %s is listed more than once", repository.getId());
+        }
+        return repositories;
+    }
 
-                    MavenProject project = createMavenProject(artifact);
-                    List<Artifact> deployableArtifacts = new ArrayList<>();
+    /**
+     * Each target gets its own throttle, checksum session and concurrency limit because they are about the
+     * repository on the other end, and lanes of its own so that it deploys at its own pace.
+     */
+    private DeploymentTarget createTarget(final ArtifactRepository repository,
+                                          final ProjectBuildingRequest tunedRequest,
+                                          final ArtifactPathParser artifactPathParser, final boolean dryRun,
+                                          final boolean bundleMode) throws IOException {
+        final RepositorySystemSession session = mavenSession.getRepositorySession();
+        final DeploymentSummary summary = new DeploymentSummary();
+        final DeploymentThrottle throttle = maxRequestsPerSecond > 0 || maxBytesPerSecond > 0
+                ? new DeploymentThrottle(maxRequestsPerSecond, maxBytesPerSecond, Checksums.getConfiguredAlgorithms(
+                        session, repository.getId()).size()) : null;
+        final ProjectBuildingRequest projectBuildingRequest = throttle != null
+                ? throttle.apply(tunedRequest) : tunedRequest;
+        final RemoteSync remoteSync = SyncMode.NONE.equals(syncMode) || dryRun ? null : new RemoteSync(syncMode,
+                new RemoteRepositoryClient(repository, session, throttle, transportSettings),
+                repository, summary, log);
+        final RemoteRepositoryClient bundleClient = bundleMode
+                ? new RemoteRepositoryClient(getBundleRepository(repository), session, throttle, transportSettings)
+                : null;
+        final boolean reuseSidecars = reuseChecksums && SidecarChecksums.canReuseSidecars(session, repository);
+        if (reuseChecksums && !reuseSidecars && !dryRun) {
+            log.warn(String.format("repository %s uses checksum algorithms other than sha1 and md5 so they "
+                    + "will be calculated", repository.getId()));
+        }
+        final SidecarChecksums checksums = (reuseSidecars || largeFileThreshold > 0) && !dryRun && !bundleMode
+                ? SidecarChecksums.create(projectBuildingRequest, repository, artifactPathParser,
+                        reuseSidecars, largeFileThreshold, summary, log) : null;
+        final AdaptiveConcurrencyLimit limit = adaptiveConcurrency ? new AdaptiveConcurrencyLimit(1, threads) : null;
+        return new DeploymentTarget(repository, summary, projectBuildingRequest, remoteSync, checksums, limit,
+                bundleClient, new DeploymentExecutor(threads, queueSize));
+    }
 
-                    if (artifact.getClassifier() == null) {
-                        artifact.setFile(file);
-                        deployableArtifacts.add(artifact);
-                    } else {
-                        projectHelper.attachArtifact(project, artifact.getType(), artifact.getClassifier(), file);
-                    }
+    /**
+     * @return the repository whose credentials the bundles are posted with, which are only sent when the bundle url
+     * is on the same server as that repository
+     */
+    private ArtifactRepository getBundleRepository(final ArtifactRepository repository) {
+        if (bundleServerId != null) {
+            return new MavenArtifactRepository(bundleServerId, bundleUrl, repository.getLayout(),
+                    repository.getSnapshots(), repository.getReleases());
+        }
+        if (!RemoteRepositoryClient.isSameOrigin(repository.getUrl(), bundleUrl)) {
+            log.warn(String.format("bundleUrl %s is not on the server of repository %s so the bundles are posted "
+                    + "without credentials, set bundleServerId to post them with the credentials of another server",
+                    bundleUrl, repository.getId()));
+        }
+        return repository;
+    }
 
-                    List<Artifact> attachedArtifacts = project.getAttachedArtifacts();
-                    deployableArtifacts.addAll(attachedArtifacts);
+    private void close(final List<DeploymentTarget> deploymentTargets, final ProjectBuildingRequest tunedRequest) {
+        for (DeploymentTarget target : deploymentTargets) {
+            try {
+                target.close();
+            } catch (IOException e) {
+                log.warn(String.format("unable to delete the calculated checksums because %s", e.getMessage()));
+            }
+        }
+        try {
+            TransportSettings.release(tunedRequest);
+        } catch (IOException e) {
+            log.warn(String.format("unable to close the connections of the run because %s", e.getMessage()));
+        }
+    }
 
-                    try {
-                        artifactDeployer.deploy(mavenSession.getProjectBuildingRequest(), artifactRepository,
-                                deployableArtifacts);
-                    } catch (ArtifactDeployerException e) {
-                        if (e.getMessage().contains("Repository does not allow updating assets")) {
-                            log.error(String.format("artifact %s failed deployment because it already exists in repo",
-                                    artifact));
-                            continue;
-                        } else {
-                            log.error(String.format("artifact %s deployment failed because %s", artifact, e.getMessage()));
-                        }
-                        throw new IOException(e);
-                    }
-                    log.info(String.format("artifact %s deployed successfully", artifact));
-                }
+    /**
+     * @return whether every target stopped because it failed too often
+     */
+    private boolean isAborted(final List<DeploymentTarget> deploymentTargets) {
+        for (DeploymentTarget target : deploymentTargets) {
+            if (!target.isAborted()) {
+                return false;
             }
         }
         return true;
     }
 
-    private boolean isHashFile(final String type) {
-        return type != null && (type.endsWith("sha1") || type.endsWith("md5"));
+    /**
+     * The groupId and artifactId restrictions are added as an include group of their own, so that the walk only
+     * enters their directory.  They are still checked exactly for every artifact because a groupId prefix also
+     * covers the groupIds below it.
+     */
+    private PathFilter getPathFilter() {
+        List<String> coordinates = new ArrayList<>();
+        if (StringUtils.isNotBlank(groupId)) {
+            coordinates.add(StringUtils.isNotBlank(artifactid) ? groupId + ":" + artifactid : groupId);
+        }
+        return new PathFilter.Builder()
+                .include(coordinates)
+                .include(includes)
+                .exclude(excludes)
+                .build();
+    }
+
+    /**
+     * @return why the artifact is not deployed or null when it is
+     */
+    private FilterReason getFilterReason(final Artifact artifact) {
+        boolean isSnapshot = ArtifactUtils.isSnapshot(artifact.getVersion());
+
+        //skip sha1 and md5 for snapshots and whenever they are uploaded as the checksums of the files instead
+        if ((isSnapshot || reuseChecksums || bundleUrl != null) && isHashFile(artifact.getType())) {
+            return FilterReason.CHECKSUM_FILE;
+        }
+
+        if (!DeploymentType.SNAPSHOT_AND_RELEASE.equals(deploymentType)
+                && isSnapshot && DeploymentType.RELEASE_ONLY.equals(deploymentType)) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("artifact %s is considered to be a snapshot and will not be deployed",
+                        artifact));
+            }
+            return FilterReason.SNAPSHOT;
+        } else if (!DeploymentType.SNAPSHOT_AND_RELEASE.equals(deploymentType)
+                && !isSnapshot && DeploymentType.SNAPSHOT_ONLY.equals(deploymentType)) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("artifact %s is considered to be a release and will not be deployed",
+                        artifact));
+            }
+            return FilterReason.RELEASE;
+        }
+
+        if (StringUtils.isNotBlank(groupId) && !artifact.getGroupId().equals(groupId)) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("artifact group %s does not match required group %s",
+                        artifact.getGroupId(), groupId));
+            }
+            return FilterReason.GROUP_ID;
+        }
+
+        if (StringUtils.isNotBlank(artifactid) && !artifact.getArtifactId().equals(artifactid)) {
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("artifact %s does not match required group %s",
+                        artifact.getArtifactId(), artifactid));
+            }
+            return FilterReason.ARTIFACT_ID;
+        }
+        return null;
     }
 
-    private Artifact getArtifact(final File file) {
+    private void submit(final DeploymentTarget target, final PendingVersion version, final boolean bundleMode)
+            throws InterruptedException {
+        Artifact first = version.getArtifacts().get(0);
+        if (bundleMode && !ArtifactUtils.isSnapshot(first.getVersion())) {
+            submit(target, target.addToBundle(version, bundleSize));
+        } else {
+            target.getExecutor().submit(first.getGroupId() + ":" + first.getArtifactId(),
+                    () -> deploy(target, version));
+        }
+    }
+
+    /**
+     * Bundles do not share metadata so they are spread over the lanes by their number.
+     */
+    private void submit(final DeploymentTarget target, final Bundle bundle) throws InterruptedException {
+        if (bundle != null) {
+            target.getExecutor().submit("bundle-" + bundle.getNumber(), () -> deployBundle(target, bundle));
+        }
+    }
+
+    private void deploy(final DeploymentTarget target, final PendingVersion version) {
+        if (target.isAborted()) {
+            completed(target, version, null);
+            return;
+        }
+        final long start = System.nanoTime();
+        ScanIndex.Status status = null;
         try {
-            final File parentDir = file.getParentFile();
-            final File artifactIdDirectory = parentDir.getParentFile();
-            final String version = parentDir.getName();
-            final String artifactId = artifactIdDirectory.getName();
+            status = deployWithRetries(target, version);
+        } finally {
+            metrics.recordVersion(System.nanoTime() - start);
+            completed(target, version, status);
+        }
+    }
 
-            final Pattern artifactPattern = Pattern.compile("^" + artifactId
-                    + "-" + version + "-{0,1}([^.][\\S]+?){0,1}\\.(\\S+){1}$");
+    private void deployBundle(final DeploymentTarget target, final Bundle bundle) {
+        if (target.isAborted()) {
+            for (PendingVersion version : bundle.getVersions()) {
+                completed(target, version, null);
+            }
+            return;
+        }
+        final long start = System.nanoTime();
+        ScanIndex.Status status = null;
+        try {
+            status = deployBundleWithRetries(target, bundle);
+        } finally {
+            metrics.recordVersion(System.nanoTime() - start);
+            for (PendingVersion version : bundle.getVersions()) {
+                completed(target, version, status);
+            }
+        }
+    }
 
-            final Matcher matcher = artifactPattern.matcher(file.getName());
-            if (matcher.matches()) {
+    /**
+     * Once a version is done on every target it is written to the journal when it was deployed to all of them,
+     * and its directory is recorded in the scan index.
+     *
+     * @param status whether the version ended up deployed or failed on the target, or null when the deployment
+     * was aborted
+     */
+    private void completed(final DeploymentTarget target, final PendingVersion version,
+                           final ScanIndex.Status status) {
+        if (!version.completed(status)) {
+            return;
+        }
+        ScanIndex.Status outcome = version.getStatus();
+        final CheckpointJournal journal = checkpointJournal;
+        if (journal != null && ScanIndex.Status.DEPLOYED.equals(outcome)) {
+            try {
+                journal.completed(version.getGav());
+            } catch (IOException e) {
+                fail(target, version.getGav(), e, 1);
+                outcome = ScanIndex.Status.FAILED;
+            }
+        }
+        final ScanIndex index = scanIndex;
+        if (index != null && outcome != null) {
+            index.completed(version.getDirectory().toPath(), outcome);
+        }
+        completed(version.getArtifacts());
+    }
 
-                final String classifier = matcher.group(1);
-                final String extension = matcher.group(2);
+    private void completed(final List<Artifact> artifacts) {
+        final ProgressReporter progress = progressReporter;
+        if (progress != null) {
+            for (Artifact artifact : artifacts) {
+                progress.completed(artifact.getFile().length());
+            }
+        }
+    }
 
-                final String groupId = artifactIdDirectory.getParentFile().toPath().toString()
-                        .replaceAll(repositoryDirectory.toPath().toString(), "")
-                        .substring(1).replaceAll("/", ".");
+    /**
+     * Uploads the bundle as a whole, so a failure fails all of its versions.  Only the files the remote
+     * repository does not have yet are bundled.
+     *
+     * @return whether the versions ended up deployed or failed, or null when the deployment was aborted
+     */
+    private ScanIndex.Status deployBundleWithRetries(final DeploymentTarget target, final Bundle bundle) {
+        final DeploymentSummary summary = target.getSummary();
+        final RetryPolicy retry = retryPolicy;
+        List<List<Artifact>> changedVersions = null;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (changedVersions == null) {
+                    changedVersions = getChangedVersions(target, bundle);
+                }
+                if (target.isAborted()) {
+                    return null;
+                }
+                if (!changedVersions.isEmpty()) {
+                    postBundle(target, bundle.getNumber(), changedVersions);
+                }
+                break;
+            } catch (IOException | RuntimeException e) {
+                if (target.isAborted() || !RetryPolicy.isTransient(e) || !retry.shouldRetry(attempt)) {
+                    for (PendingVersion version : bundle.getVersions()) {
+                        fail(target, version.getGav(), e, attempt);
+                    }
+                    return ScanIndex.Status.FAILED;
+                }
+                long backoff = retry.getBackoffMillis(attempt);
+                log.warn(String.format("bundle %d deployment to %s failed because %s, retry %d of %d in %d ms",
+                        bundle.getNumber(), target.getId(), e.getMessage(), attempt, retry.getRetries(), backoff));
+                summary.retried("bundle " + bundle.getNumber());
+                final long backoffStart = System.nanoTime();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    for (PendingVersion version : bundle.getVersions()) {
+                        fail(target, version.getGav(), e, attempt);
+                    }
+                    return ScanIndex.Status.FAILED;
+                } finally {
+                    metrics.record(DeploymentMetrics.Phase.RETRY_BACKOFF, System.nanoTime() - backoffStart);
+                }
+            }
+        }
+        for (List<Artifact> version : changedVersions) {
+            for (Artifact artifact : version) {
+                summary.deployed(artifact);
+            }
+        }
+        return ScanIndex.Status.DEPLOYED;
+    }
 
-                Artifact artifact = new DefaultArtifact(groupId, artifactId, version, "runtime",
-                        extension, classifier, new DefaultArtifactHandler(extension));
-                Objects.requireNonNull(artifact.getType());
-                return artifact;
-            } else {
-                return null;
+    /**
+     * @return the files of each version of the bundle that are not in the remote repository yet
+     */
+    private List<List<Artifact>> getChangedVersions(final DeploymentTarget target, final Bundle bundle) {
+        final RemoteSync sync = target.getRemoteSync();
+        final long syncStart = System.nanoTime();
+        List<List<Artifact>> changedVersions = new ArrayList<>(bundle.getVersions().size());
+        for (PendingVersion version : bundle.getVersions()) {
+            List<Artifact> changedArtifacts = sync != null ? sync.filter(version.getArtifacts())
+                    : version.getArtifacts();
+            if (!changedArtifacts.isEmpty()) {
+                changedVersions.add(changedArtifacts);
             }
-        } catch (Exception t) {
-            return null;
         }
+        if (sync != null) {
+            metrics.record(DeploymentMetrics.Phase.SYNC, System.nanoTime() - syncStart);
+        }
+        return changedVersions;
     }
 
-    private MavenProject createMavenProject(Artifact artifact) throws IOException {
-
-        ModelSource modelSource = new StringModelSource("""
-        <project>
-          <modelVersion>4.0.0</modelVersion>
-          <groupId>%s</groupId>
-          <artifactId>%s</artifactId>
-          <version>%s</version>
-          <packaging>%s</packaging>
-        </project>
-        """.formatted(
-                artifact.getGroupId(),
-                artifact.getArtifactId(),
-                artifact.getVersion(),
-                artifact.getType()
-        ));
-
-        DefaultProjectBuildingRequest buildingRequest =
-                new DefaultProjectBuildingRequest(mavenSession.getProjectBuildingRequest());
-        buildingRequest.setProcessPlugins(false);
+    private void postBundle(final DeploymentTarget target, final int number, final List<List<Artifact>> versions)
+            throws IOException {
+        final ArtifactRepository repository = target.getArtifactRepository();
+        final Set<String> algorithms = Checksums.getConfiguredAlgorithms(mavenSession.getRepositorySession(),
+                repository.getId());
+        final long start = System.nanoTime();
         try {
-            return projectBuilder.build(modelSource, buildingRequest).getProject();
-        } catch (ProjectBuildingException e) {
-            if (e.getCause() instanceof ModelBuildingException) {
-                throw new IOException("The artifact information is not valid:" + Os.LINE_SEP
-                        + e.getCause().getMessage());
+            target.getBundleClient().send(bundleMethod, bundleUrl, "application/zip", bundleHeaders,
+                    outputStream -> Bundle.write(outputStream, versions, repository, algorithms));
+        } finally {
+            metrics.recordUpload(System.nanoTime() - start);
+        }
+        int fileCount = 0;
+        for (List<Artifact> version : versions) {
+            fileCount += version.size();
+        }
+        target.getSummary().bundled(fileCount);
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("bundle %d with %d file(s) of %d version(s) deployed successfully",
+                    number, fileCount, versions.size()));
+        }
+    }
+
+    /**
+     * @return whether the version ended up deployed or failed, or null when the deployment was aborted
+     */
+    private ScanIndex.Status deployWithRetries(final DeploymentTarget target, final PendingVersion version) {
+        final String gav = version.getGav();
+        final DeploymentSummary summary = target.getSummary();
+        final RetryPolicy retry = retryPolicy;
+        //the deployments of the version that have not succeeded yet, so that a retry does not repeat the others
+        Queue<SidecarChecksums.Deployment> pendingDeployments = null;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                if (pendingDeployments == null) {
+                    pendingDeployments = new ArrayDeque<>(getDeployments(target, version));
+                }
+                while (!pendingDeployments.isEmpty()) {
+                    SidecarChecksums.Deployment deployment = pendingDeployments.peek();
+                    if (target.isAborted() || !deployVersion(target, gav, deployment.projectBuildingRequest(),
+                            deployment.artifacts())) {
+                        return null;
+                    }
+                    pendingDeployments.remove();
+                    summary.checksumsReused(deployment.reusedChecksums());
+                    summary.checksumsCalculated(deployment.calculatedChecksums());
+                }
+                break;
+            } catch (ArtifactDeployerException | IOException | RuntimeException e) {
+                if (target.isAborted() || !RetryPolicy.isTransient(e) || !retry.shouldRetry(attempt)) {
+                    fail(target, gav, e, attempt);
+                    return ScanIndex.Status.FAILED;
+                }
+                long backoff = retry.getBackoffMillis(attempt);
+                log.warn(String.format("artifact %s deployment to %s failed because %s, retry %d of %d in %d ms",
+                        gav, target.getId(), e.getMessage(), attempt, retry.getRetries(), backoff));
+                summary.retried(gav);
+                final long backoffStart = System.nanoTime();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    fail(target, gav, e, attempt);
+                    return ScanIndex.Status.FAILED;
+                } finally {
+                    metrics.record(DeploymentMetrics.Phase.RETRY_BACKOFF, System.nanoTime() - backoffStart);
+                }
             }
-            throw new IOException("Unable to create the project.", e);
         }
+        return ScanIndex.Status.DEPLOYED;
     }
 
-    private void deployProject(ProjectBuildingRequest pbr, ProjectDeployerRequest pir, ArtifactRepository repo)
-            throws IOException {
+    /**
+     * @return the deploy requests for the files of the version that are not in the remote repository yet
+     */
+    private List<SidecarChecksums.Deployment> getDeployments(final DeploymentTarget target,
+                                                             final PendingVersion version) throws IOException {
+        final RemoteSync sync = target.getRemoteSync();
+        final SidecarChecksums checksums = target.getSidecarChecksums();
+        List<Artifact> changedArtifacts = version.getArtifacts();
+        if (sync != null) {
+            final long syncStart = System.nanoTime();
+            changedArtifacts = sync.filter(changedArtifacts);
+            metrics.record(DeploymentMetrics.Phase.SYNC, System.nanoTime() - syncStart);
+        }
+        if (changedArtifacts.isEmpty()) {
+            return List.of();
+        } else if (checksums == null) {
+            return List.of(new SidecarChecksums.Deployment(target.getProjectBuildingRequest(), changedArtifacts,
+                    0, 0));
+        }
+        return checksums.split(changedArtifacts, version.getCalculatedChecksums());
+    }
+
+    /**
+     * @return true when every file of the version is in the repository afterwards, false when the deployment
+     * was aborted halfway
+     * @throws ArtifactDeployerException when the deployment failed for any reason other than a file that
+     * already exists
+     */
+    private boolean deployVersion(final DeploymentTarget target, final String gav,
+                                  final ProjectBuildingRequest projectBuildingRequest,
+                                  final List<Artifact> artifacts) throws ArtifactDeployerException, IOException {
         try {
-            projectDeployer.deploy(pbr, pir, repo);
-        } catch (NoFileAssignedException e) {
-            throw new IOException("NoFileAssignedException", e);
+            deployArtifacts(target, projectBuildingRequest, artifacts);
         } catch (ArtifactDeployerException e) {
-            throw new IOException("ArtifactDeployerException", e);
+            if (isAlreadyExists(e)) {
+                if (artifacts.size() > 1) {
+                    //deploy file by file so that the files not in the repo yet are still deployed
+                    for (Artifact artifact : artifacts) {
+                        if (target.isAborted()
+                                || !deployVersion(target, gav, projectBuildingRequest, List.of(artifact))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug(String.format("artifact %s failed deployment to %s because it already exists in repo",
+                            artifacts.get(0), target.getId()));
+                }
+                target.getSummary().alreadyExists(artifacts.get(0));
+                return true;
+            }
+            throw e;
+        }
+        for (Artifact artifact : artifacts) {
+            target.getSummary().deployed(artifact);
+            if (log.isDebugEnabled()) {
+                log.debug(String.format("artifact %s deployed successfully to %s", artifact, target.getId()));
+            }
+        }
+        return true;
+    }
+
+    private void deployArtifacts(final DeploymentTarget target, final ProjectBuildingRequest projectBuildingRequest,
+                                 final List<Artifact> artifacts) throws ArtifactDeployerException, IOException {
+        final ArtifactRepository repository = target.getArtifactRepository();
+        final AdaptiveConcurrencyLimit limit = target.getConcurrencyLimit();
+        if (limit == null) {
+            final long start = System.nanoTime();
+            try {
+                artifactDeployer.deploy(projectBuildingRequest, repository, getDeployableArtifacts(artifacts));
+            } finally {
+                metrics.recordUpload(System.nanoTime() - start);
+            }
+            return;
+        }
+        long ticket;
+        try {
+            ticket = limit.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("bulk deployment was interrupted");
+        }
+        long start = System.nanoTime();
+        boolean overloaded = false;
+        try {
+            artifactDeployer.deploy(projectBuildingRequest, repository, getDeployableArtifacts(artifacts));
+        } catch (ArtifactDeployerException | RuntimeException e) {
+            overloaded = RetryPolicy.isOverloaded(e);
+            throw e;
+        } finally {
+            long bytes = 0;
+            for (Artifact artifact : artifacts) {
+                bytes += artifact.getFile().length();
+            }
+            long latency = System.nanoTime() - start;
+            metrics.recordUpload(latency);
+            limit.release(ticket, latency, bytes, overloaded);
         }
     }
 
+    /**
+     * Classified files are deployed as the attached artifacts of the version without building a project for
+     * them.  They end up with the same coordinates, extension and file that attaching them to a synthetic
+     * project would produce, so the deploy request stays the same.
+     */
+    private List<Artifact> getDeployableArtifacts(final List<Artifact> artifacts) {
+        List<Artifact> deployableArtifacts = new ArrayList<>(artifacts.size());
+        List<Artifact> attachedArtifacts = new ArrayList<>();
+        for (Artifact artifact : artifacts) {
+            if (artifact.getClassifier() == null) {
+                deployableArtifacts.add(artifact);
+            } else {
+                attachedArtifacts.add(artifact);
+            }
+        }
+        deployableArtifacts.addAll(attachedArtifacts);
+        return deployableArtifacts;
+    }
+
+    private boolean isAlreadyExists(final ArtifactDeployerException e) {
+        return e.getMessage() != null && e.getMessage().contains("Repository does not allow updating assets");
+    }
+
+
+
+    private void fail(final DeploymentTarget target, final String gav, final Exception e, final int attempts) {
+        final DeploymentSummary summary = target.getSummary();
+        log.error(String.format("artifact %s deployment to %s failed because %s", gav, target.getId(),
+                e.getMessage()));
+        summary.failed(gav, String.format("%s (%d attempt(s))", e.getMessage(), attempts));
+        target.failed(e);
+        if (failureBudget >= 0 && summary.getFailedCount() > failureBudget && target.abort()) {
+            log.error(String.format("aborting the deployment to %s because more than %d artifact version(s) failed",
+                    target.getId(), failureBudget));
+        }
+    }
+
+    private boolean isHashFile(final String type) {
+        return type != null && (type.endsWith("sha1") || type.endsWith("md5"));
+    }
+
     public static class Builder {
         private File repositoryDirectory = Paths.get(System.getProperty("user.home"),
                 ".m2", "repository").toFile();
         private String repositorySubDirectory;
         private ArtifactRepository artifactRepository;
-        private ProjectDeployer projectDeployer;
-        private ProjectBuilder projectBuilder;
+        private List<ArtifactRepository> targetRepositories;
         private MavenSession mavenSession;
-        private MavenProjectHelper projectHelper;
         private ArtifactDeployer artifactDeployer;
         private DeploymentType deploymentType = DeploymentType.RELEASE_ONLY;
         private Log log;
         private String groupId;
         private String artifactId;
+        private int threads = 1;
+        private int queueSize = 100;
+        private File journalFile;
+        private boolean resume;
+        private SyncMode syncMode = SyncMode.NONE;
+        private boolean reuseChecksums;
+        private int retries = 3;
+        private long retryBackoff = 1000;
+        private long maxRetryBackoff = 60000;
+        private int failureBudget = -1;
+        private long maxRequestsPerSecond;
+        private long maxBytesPerSecond;
+        private boolean adaptiveConcurrency;
+        private File reportFile;
+        private long progressInterval = 10000;
+        private boolean estimateSize;
+        private File dryRunManifestFile;
+        private File manifestFile;
+        private File scanIndexFile;
+        private List<String> includes;
+        private List<String> excludes;
+        private int scanParallelism = 1;
+        private long largeFileThreshold;
+        private TransportSettings transportSettings;
+        private String bundleUrl;
+        private String bundleServerId;
+        private String bundleMethod = "POST";
+        private Map<String, String> bundleHeaders;
+        private long bundleSize = 64L * 1024 * 1024;
+        private int shardIndex;
+        private int shardCount = 1;
 
         public Builder setRepositoryDirectory(final File repositoryDirectory) {
             this.repositoryDirectory = repositoryDirectory;
@@ -267,27 +979,11 @@ public class BulkUploader {
             return this;
         }
 
-        public Builder setProjectDeployer(ProjectDeployer projectDeployer) {
-            this.projectDeployer = projectDeployer;
-            return this;
-        }
-
-
-        public Builder setProjectBuilder(ProjectBuilder projectBuilder) {
-            this.projectBuilder = projectBuilder;
-            return this;
-        }
-
         public Builder setMavenSession(MavenSession mavenSession) {
             this.mavenSession = mavenSession;
             return this;
         }
 
-        public Builder setProjectHelper(MavenProjectHelper projectHelper) {
-            this.projectHelper = projectHelper;
-            return this;
-        }
-
         public Builder setArtifactDeployer(ArtifactDeployer artifactDeployer) {
             this.artifactDeployer = artifactDeployer;
             return this;
@@ -316,5 +1012,225 @@ public class BulkUploader {
             this.artifactId = artifactId;
             return this;
         }
+
+        public Builder setThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        public Builder setQueueSize(int queueSize) {
+            this.queueSize = queueSize;
+            return this;
+        }
+
+        public Builder setJournalFile(File journalFile) {
+            this.journalFile = journalFile;
+            return this;
+        }
+
+        public Builder setResume(boolean resume) {
+            this.resume = resume;
+            return this;
+        }
+
+        public Builder setSyncMode(SyncMode syncMode) {
+            this.syncMode = syncMode;
+            return this;
+        }
+
+        public Builder setReuseChecksums(boolean reuseChecksums) {
+            this.reuseChecksums = reuseChecksums;
+            return this;
+        }
+
+        public Builder setRetries(int retries) {
+            this.retries = retries;
+            return this;
+        }
+
+        public Builder setRetryBackoff(long retryBackoff) {
+            this.retryBackoff = retryBackoff;
+            return this;
+        }
+
+        public Builder setMaxRetryBackoff(long maxRetryBackoff) {
+            this.maxRetryBackoff = maxRetryBackoff;
+            return this;
+        }
+
+        public Builder setFailureBudget(int failureBudget) {
+            this.failureBudget = failureBudget;
+            return this;
+        }
+
+        public Builder setMaxRequestsPerSecond(long maxRequestsPerSecond) {
+            this.maxRequestsPerSecond = maxRequestsPerSecond;
+            return this;
+        }
+
+        public Builder setMaxBytesPerSecond(long maxBytesPerSecond) {
+            this.maxBytesPerSecond = maxBytesPerSecond;
+            return this;
+        }
+
+        public Builder setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+            this.adaptiveConcurrency = adaptiveConcurrency;
+            return this;
+        }
+
+        public Builder setReportFile(File reportFile) {
+            this.reportFile = reportFile;
+            return this;
+        }
+
+        public Builder setProgressInterval(long progressInterval) {
+            this.progressInterval = progressInterval;
+            return this;
+        }
+
+        /**
+         * Add up the size of the deployment with a second walk of the repository so that progress has an ETA.
+         */
+        public Builder setEstimateSize(boolean estimateSize) {
+            this.estimateSize = estimateSize;
+            return this;
+        }
+
+        /**
+         * Only scan the repository and write what would be deployed to the manifest file, without contacting the
+         * remote repository.
+         */
+        public Builder setDryRunManifestFile(File dryRunManifestFile) {
+            this.dryRunManifestFile = dryRunManifestFile;
+            return this;
+        }
+
+        /**
+         * Deploy the artifact versions listed in the manifest file instead of walking the repository directory.
+         */
+        public Builder setManifestFile(File manifestFile) {
+            this.manifestFile = manifestFile;
+            return this;
+        }
+
+        /**
+         * Skip the version directories that were deployed to the same repositories by an earlier run with the same
+         * scan index file and have not changed since.
+         */
+        public Builder setScanIndexFile(File scanIndexFile) {
+            this.scanIndexFile = scanIndexFile;
+            return this;
+        }
+
+        /**
+         * Only deploy the artifacts that match one of the groupId[:artifactId[:version]] patterns.
+         */
+        public Builder setIncludes(List<String> includes) {
+            this.includes = includes;
+            return this;
+        }
+
+        /**
+         * Do not deploy the artifacts that match one of the groupId[:artifactId[:version]] patterns.
+         */
+        public Builder setExcludes(List<String> excludes) {
+            this.excludes = excludes;
+            return this;
+        }
+
+        /**
+         * List this many directories of the repository at the same time, for file systems where every listing is
+         * a round trip over the network.
+         */
+        public Builder setScanParallelism(int scanParallelism) {
+            this.scanParallelism = scanParallelism;
+            return this;
+        }
+
+        /**
+         * Calculate the checksums of release files of at least this many bytes with all configured algorithms in
+         * one pass over the memory mapped file instead of leaving them to the deployer, 0 to never do so.
+         */
+        public Builder setLargeFileThreshold(long largeFileThreshold) {
+            this.largeFileThreshold = largeFileThreshold;
+            return this;
+        }
+
+        /**
+         * Connection pool, timeout and HTTP version settings for all requests of the run, null to keep those of
+         * the maven session.
+         */
+        public Builder setTransportSettings(TransportSettings transportSettings) {
+            this.transportSettings = transportSettings;
+            return this;
+        }
+
+        /**
+         * Upload release versions as zip archives that are posted to this url instead of file by file, null to
+         * deploy them file by file.  The endpoint unpacks the archive into the repository.
+         */
+        public Builder setBundleUrl(String bundleUrl) {
+            this.bundleUrl = bundleUrl;
+            return this;
+        }
+
+        /**
+         * Post the bundles with the credentials of this server id from the settings, null to post them with the
+         * credentials of the repository, which are only sent when the bundle url is on the same server.
+         */
+        public Builder setBundleServerId(String bundleServerId) {
+            this.bundleServerId = bundleServerId;
+            return this;
+        }
+
+        /**
+         * Send the bundles with POST, the default, or PUT.
+         */
+        public Builder setBundleMethod(String bundleMethod) {
+            this.bundleMethod = bundleMethod;
+            return this;
+        }
+
+        /**
+         * More headers of the bundle requests, like the one that tells the repository manager to unpack them.
+         */
+        public Builder setBundleHeaders(Map<String, String> bundleHeaders) {
+            this.bundleHeaders = bundleHeaders;
+            return this;
+        }
+
+        /**
+         * Close a bundle once its files add up to this many bytes before compression.
+         */
+        public Builder setBundleSize(long bundleSize) {
+            this.bundleSize = bundleSize;
+            return this;
+        }
+
+        /**
+         * Only deploy the artifacts of this shard, from 0 to shardCount - 1.
+         */
+        public Builder setShardIndex(int shardIndex) {
+            this.shardIndex = shardIndex;
+            return this;
+        }
+
+        /**
+         * Split the artifacts into this many shards by a stable hash of their groupId:artifactId, so that each of
+         * as many machines deploys one of them.
+         */
+        public Builder setShardCount(int shardCount) {
+            this.shardCount = shardCount;
+            return this;
+        }
+
+        /**
+         * Deploy every artifact to these repositories as well.  The local repository is walked and read once and
+         * each repository is deployed to at its own pace, with lanes of its own.
+         */
+        public Builder setTargetRepositories(List<ArtifactRepository> targetRepositories) {
+            this.targetRepositories = targetRepositories;
+            return this;
+        }
     }
-}
\ No newline at end of file
+}
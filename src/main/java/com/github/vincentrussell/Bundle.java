@@ -0,0 +1,113 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Release versions that are uploaded together as one zip archive instead of a request per file.  Only references
+ * to the files are held until the bundle is written, and the archive is streamed straight from the files to the
+ * request.  Every file is stored under its path in the remote repository and followed by its checksum files,
+ * calculated while the file is copied, so each file is read exactly once.
+ */
+final class Bundle {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final int number;
+    private final List<PendingVersion> versions = new ArrayList<>();
+    private long size;
+    private int fileCount;
+
+    /**
+     * @param number numbers the bundles of a run, starting at 1
+     */
+    Bundle(final int number) {
+        this.number = number;
+    }
+
+    void add(final PendingVersion version) {
+        versions.add(version);
+        for (Artifact artifact : version.getArtifacts()) {
+            size += artifact.getFile().length();
+            fileCount++;
+        }
+    }
+
+    int getNumber() {
+        return number;
+    }
+
+    List<PendingVersion> getVersions() {
+        return versions;
+    }
+
+    boolean isEmpty() {
+        return versions.isEmpty();
+    }
+
+    /**
+     * @return the size of the files in the bundle before compression
+     */
+    long getSize() {
+        return size;
+    }
+
+    int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * Writes the files of a bundle as a zip archive.
+     *
+     * @param versions the files of the versions of the bundle that are uploaded
+     * @param algorithms the checksum algorithms to add a checksum file for every file with
+     */
+    static void write(final OutputStream outputStream, final List<List<Artifact>> versions,
+                      final ArtifactRepository artifactRepository, final Collection<String> algorithms)
+            throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (ZipOutputStream zip = new ZipOutputStream(outputStream)) {
+            for (List<Artifact> version : versions) {
+                for (Artifact artifact : version) {
+                    String path = artifactRepository.pathOf(artifact);
+                    Map<String, MessageDigest> digests = Checksums.newDigests(algorithms);
+                    zip.putNextEntry(new ZipEntry(path));
+                    copy(artifact.getFile(), zip, digests.values(), buffer);
+                    zip.closeEntry();
+                    for (Map.Entry<String, String> checksum : Checksums.toHex(digests).entrySet()) {
+                        zip.putNextEntry(new ZipEntry(path + "." + Checksums.getExtension(checksum.getKey())));
+                        zip.write(checksum.getValue().getBytes(StandardCharsets.UTF_8));
+                        zip.closeEntry();
+                    }
+                }
+            }
+        }
+    }
+
+    private static void copy(final File file, final OutputStream outputStream,
+                             final Collection<MessageDigest> digests, final byte[] buffer) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = inputStream.read(buffer)) >= 0) {
+                outputStream.write(buffer, 0, read);
+                for (MessageDigest digest : digests) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.vincentrussell;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Append only record of the artifact versions (groupId:artifactId:version) that have been completely deployed.
+ * Every entry is written straight to the file channel as one newline terminated line, so an entry is either
+ * in the file completely or it is ignored when the journal is read back and dropped when it is reopened.  Every
+ * entry is forced to the disk before {@link #completed(String)} returns, so a crash or a kill does not lose the
+ * versions that were deployed last and a resumed run does not deploy them again.  One fsync per version costs
+ * little next to the requests that deploy the version.
+ */
+final class CheckpointJournal implements Closeable {
+
+    private final FileChannel channel;
+
+    private CheckpointJournal(final FileChannel channel) {
+        this.channel = channel;
+    }
+
+    static CheckpointJournal open(final File journalFile) throws IOException {
+        notNull(journalFile, "journalFile is null");
+        File parent = journalFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.READ);
+        try {
+            channel.truncate(endOfLastCompleteEntry(channel));
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new CheckpointJournal(channel);
+    }
+
+    /**
+     * A crash can leave a partially written last entry behind and it has to go before new entries are appended.
+     */
+    private static long endOfLastCompleteEntry(final FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        long end = channel.size();
+        while (end > 0) {
+            int length = (int) Math.min(buffer.capacity(), end);
+            buffer.clear().limit(length);
+            long start = end - length;
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, start + buffer.position()) < 0) {
+                    throw new IOException("journal file changed while it was being read");
+                }
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the versions recorded as completed, without a trailing entry that was only partially written
+     */
+    static Set<String> read(final File journalFile) throws IOException {
+        notNull(journalFile, "journalFile is null");
+        Set<String> completed = new HashSet<>();
+        if (!journalFile.exists()) {
+            return completed;
+        }
+        String content = Files.readString(journalFile.toPath(), StandardCharsets.UTF_8);
+        int start = 0;
+        int end;
+        while ((end = content.indexOf('\n', start)) >= 0) {
+            if (end > start) {
+                completed.add(content.substring(start, end));
+            }
+            start = end + 1;
+        }
+        return completed;
+    }
+
+    synchronized void completed(final String gav) throws IOException {
+        ByteBuffer entry = ByteBuffer.wrap((gav + "\n").getBytes(StandardCharsets.UTF_8));
+        while (entry.hasRemaining()) {
+            channel.write(entry);
+        }
+        channel.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+}
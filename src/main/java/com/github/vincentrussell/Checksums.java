@@ -0,0 +1,172 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.lang3.StringUtils;
+import org.eclipse.aether.RepositorySystemSession;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checksums of repository files, either read from the .sha1/.md5 files next to them or calculated.
+ */
+final class Checksums {
+
+    static final String SHA1 = "sha1";
+    static final String MD5 = "md5";
+
+    static final String CHECKSUM_ALGORITHMS = "aether.checksums.algorithms";
+    static final Set<String> DEFAULT_ALGORITHMS = Set.of("SHA-1", "MD5");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAP_THRESHOLD = 1024 * 1024;
+    private static final int MAP_WINDOW = 64 * 1024 * 1024;
+    private static final int SLICE_SIZE = 1024 * 1024;
+
+    private Checksums() {
+    }
+
+    /**
+     * @return the checksum stored in the sidecar file (e.g. foo.jar.sha1 for foo.jar) or null when there is none
+     */
+    static String readSidecar(final File file, final String extension) throws IOException {
+        File sidecar = getSidecar(file, extension);
+        if (!sidecar.isFile()) {
+            return null;
+        }
+        return parse(new String(Files.readAllBytes(sidecar.toPath()), StandardCharsets.UTF_8));
+    }
+
+    static File getSidecar(final File file, final String extension) {
+        return new File(file.getPath() + "." + extension);
+    }
+
+    /**
+     * Checksum files contain either just the hex digest or the "digest  filename" form of sha1sum and md5sum.
+     *
+     * @return the lower case hex digest or null when there is none
+     */
+    static String parse(final String content) {
+        if (content == null) {
+            return null;
+        }
+        String[] parts = StringUtils.split(content);
+        return parts.length == 0 ? null : parts[0].toLowerCase(Locale.ROOT);
+    }
+
+    static String sha1(final File file) throws IOException {
+        return calculate(file, Set.of("SHA-1")).get("SHA-1");
+    }
+
+    /**
+     * Calculates the checksums of a file with all the algorithms in one pass.  Files of a megabyte and more are
+     * memory mapped a window at a time and every slice of a window is handed to all the digests while it is still
+     * in the cpu cache, so a file of any size is read once and never copied onto the heap as a whole.
+     *
+     * @param algorithms names of {@link MessageDigest} algorithms, like SHA-1 or SHA-256
+     * @return the lower case hex digests by algorithm name
+     */
+    static Map<String, String> calculate(final File file, final Collection<String> algorithms) throws IOException {
+        Map<String, MessageDigest> digests = newDigests(algorithms);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                while (channel.read(buffer) >= 0) {
+                    buffer.flip();
+                    update(digests.values(), buffer);
+                    buffer.clear();
+                }
+            } else {
+                for (long position = 0; position < size; position += MAP_WINDOW) {
+                    MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                            Math.min(MAP_WINDOW, size - position));
+                    for (int offset = 0; offset < window.limit(); offset += SLICE_SIZE) {
+                        update(digests.values(), window.slice(offset, Math.min(SLICE_SIZE, window.limit() - offset)));
+                    }
+                }
+            }
+        }
+        return toHex(digests);
+    }
+
+    /**
+     * @return a new digest for each algorithm by algorithm name, in the order of the algorithms
+     */
+    static Map<String, MessageDigest> newDigests(final Collection<String> algorithms) {
+        Map<String, MessageDigest> digests = new LinkedHashMap<>();
+        for (String algorithm : algorithms) {
+            digests.put(algorithm, newDigest(algorithm));
+        }
+        return digests;
+    }
+
+    /**
+     * Completes the digests.
+     *
+     * @return the lower case hex digests by algorithm name
+     */
+    static Map<String, String> toHex(final Map<String, MessageDigest> digests) {
+        Map<String, String> checksums = new LinkedHashMap<>();
+        for (Map.Entry<String, MessageDigest> digest : digests.entrySet()) {
+            checksums.put(digest.getKey(), HexFormat.of().formatHex(digest.getValue().digest()));
+        }
+        return checksums;
+    }
+
+    /**
+     * @return the extension of the checksum files of the algorithm, like sha256 for SHA-256
+     */
+    static String getExtension(final String algorithm) {
+        return algorithm.replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static void update(final Collection<MessageDigest> digests, final ByteBuffer buffer) {
+        for (MessageDigest digest : digests) {
+            digest.update(buffer.duplicate());
+        }
+    }
+
+    /**
+     * @return the names of the checksum algorithms the deployer uploads checksums with for the repository
+     */
+    static Set<String> getConfiguredAlgorithms(final RepositorySystemSession session, final String repositoryId) {
+        Map<String, Object> configProperties = session.getConfigProperties();
+        Object algorithms = configProperties.get(CHECKSUM_ALGORITHMS + "." + repositoryId);
+        if (!(algorithms instanceof String)) {
+            algorithms = configProperties.get(CHECKSUM_ALGORITHMS);
+        }
+        if (!(algorithms instanceof String)) {
+            return DEFAULT_ALGORITHMS;
+        }
+        Set<String> names = new HashSet<>();
+        for (String name : ((String) algorithms).split(",")) {
+            if (!name.isBlank()) {
+                names.add(name.trim().toUpperCase(Locale.ROOT));
+            }
+        }
+        return names;
+    }
+
+    private static MessageDigest newDigest(final String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(algorithm + " is not supported by this jvm", e);
+        }
+    }
+}
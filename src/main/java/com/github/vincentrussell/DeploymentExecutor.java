@@ -0,0 +1,68 @@
+package com.github.vincentrussell;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Runs deployments on a fixed number of single threaded lanes.  Work submitted with the same key always runs on
+ * the same lane in submission order, so deployments that update the same maven-metadata.xml never race each other.
+ * Each lane has a bounded queue and {@link #submit(String, Runnable)} blocks while the chosen lane is full.
+ */
+final class DeploymentExecutor implements AutoCloseable {
+
+    private final ThreadPoolExecutor[] lanes;
+
+    DeploymentExecutor(final int threads, final int queueSize) {
+        isTrue(threads > 0, "threads must be greater than 0 but was %d", threads);
+        isTrue(queueSize > 0, "queueSize must be greater than 0 but was %d", queueSize);
+        this.lanes = new ThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueSize), new LaneThreadFactory(i));
+            lanes[i].prestartAllCoreThreads();
+        }
+    }
+
+    void submit(final String key, final Runnable task) throws InterruptedException {
+        ThreadPoolExecutor lane = lanes[Math.floorMod(key.hashCode(), lanes.length)];
+        isTrue(!lane.isShutdown(), "executor has been shut down");
+        lane.getQueue().put(task);
+    }
+
+    void awaitCompletion() throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : lanes) {
+            while (!lane.awaitTermination(1, TimeUnit.SECONDS)) {
+                //keep waiting for the queued deployments to drain
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+    }
+
+    private static final class LaneThreadFactory implements ThreadFactory {
+        private final int lane;
+
+        private LaneThreadFactory(final int lane) {
+            this.lane = lane;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            Thread thread = new Thread(runnable, "bulk-deploy-" + lane);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
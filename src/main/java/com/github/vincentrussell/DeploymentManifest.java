@@ -0,0 +1,129 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Plain text list of what a deployment would upload, written by a dry run.  Every artifact version is one line so
+ * the manifest can be split with standard tools:
+ * <pre>
+ * groupId:artifactId:version&lt;TAB&gt;directory&lt;TAB&gt;size name&lt;TAB&gt;size name...
+ * </pre>
+ * The directory is relative to the repository directory and uses / as separator.  Lines starting with # are
+ * comments; the last ones hold the totals.  The number of requests is an estimate: one per file and checksum,
+ * the metadata read and uploaded with its checksums once per version (twice for snapshots) and one per release
+ * file to compare with the remote repository when a sync mode is used.
+ */
+final class DeploymentManifest implements Closeable {
+
+    static final String COMMENT = "#";
+
+    private final Writer writer;
+    private final Path repositoryDirectory;
+    private final int checksumsPerUpload;
+    private final boolean sync;
+    private long versions;
+    private long files;
+    private long bytes;
+    private long requests;
+    private boolean closed;
+
+    private DeploymentManifest(final Writer writer, final Path repositoryDirectory, final int checksumsPerUpload,
+                               final boolean sync) {
+        this.writer = writer;
+        this.repositoryDirectory = repositoryDirectory;
+        this.checksumsPerUpload = checksumsPerUpload;
+        this.sync = sync;
+    }
+
+    /**
+     * @param checksumsPerUpload number of checksum files the deployer uploads with each file
+     * @param sync whether each release file is looked up in the remote repository before it is deployed
+     */
+    static DeploymentManifest create(final File manifestFile, final File repositoryDirectory,
+                                     final int checksumsPerUpload, final boolean sync) throws IOException {
+        notNull(manifestFile, "manifestFile is null");
+        notNull(repositoryDirectory, "repositoryDirectory is null");
+        File parent = manifestFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        Writer writer = Files.newBufferedWriter(manifestFile.toPath(), StandardCharsets.UTF_8);
+        try {
+            writer.write(COMMENT + " groupId:artifactId:version\tdirectory\tsize name...\n");
+        } catch (IOException e) {
+            writer.close();
+            throw e;
+        }
+        return new DeploymentManifest(writer, repositoryDirectory.toPath().toAbsolutePath(), checksumsPerUpload,
+                sync);
+    }
+
+    /**
+     * @param artifacts the deployable files of one artifact version
+     */
+    synchronized void add(final File directory, final List<Artifact> artifacts) throws IOException {
+        Artifact first = artifacts.get(0);
+        boolean snapshot = ArtifactUtils.isSnapshot(first.getVersion());
+        StringBuilder line = new StringBuilder()
+                .append(first.getGroupId()).append(':').append(first.getArtifactId()).append(':')
+                .append(first.getVersion()).append('\t')
+                .append(repositoryDirectory.relativize(directory.toPath().toAbsolutePath()).toString()
+                        .replace(File.separatorChar, '/'));
+        for (Artifact artifact : artifacts) {
+            long size = artifact.getFile().length();
+            line.append('\t').append(size).append(' ').append(artifact.getFile().getName());
+            bytes += size;
+        }
+        writer.write(line.append('\n').toString());
+        versions++;
+        files += artifacts.size();
+        requests += (long) artifacts.size() * (1 + checksumsPerUpload)
+                + (2L + checksumsPerUpload) * (snapshot ? 2 : 1)
+                + (sync && !snapshot ? artifacts.size() : 0);
+    }
+
+    synchronized long getVersionCount() {
+        return versions;
+    }
+
+    synchronized long getFileCount() {
+        return files;
+    }
+
+    synchronized long getByteCount() {
+        return bytes;
+    }
+
+    synchronized long getRequestCount() {
+        return requests;
+    }
+
+    /**
+     * Writes the totals and closes the manifest.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.write(String.format("%s versions\t%d\n%s files\t%d\n%s bytes\t%d\n%s requests\t%d\n",
+                    COMMENT, versions, COMMENT, files, COMMENT, bytes, COMMENT, requests));
+        } finally {
+            writer.close();
+        }
+    }
+}
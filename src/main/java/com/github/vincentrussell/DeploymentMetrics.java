@@ -0,0 +1,226 @@
+package com.github.vincentrussell;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Where the time of a bulk deployment went, written as a JSON report at the end of the run.  The walk, parse and
+ * queue phases happen on the scanning threads.  With one of them they add up to the time of the scan, with more
+ * they are summed over all of them like the other phases, which happen on the deploy threads, so together they can
+ * exceed the duration of the run.
+ */
+final class DeploymentMetrics {
+
+    enum Phase {
+        /** listing the directories of the repository or reading the manifest, without parsing and queueing. */
+        WALK,
+        /** turning files into artifacts and filtering them. */
+        PARSE,
+        /** waiting for room in a full deployment queue. */
+        QUEUE,
+        /** asking the remote repository which files it already has. */
+        SYNC,
+        /** deploy requests, from the first byte sent until the repository has accepted every file. */
+        UPLOAD,
+        /** waiting before a failed deployment is retried. */
+        RETRY_BACKOFF;
+
+        String getJsonName() {
+            String[] words = name().toLowerCase(Locale.ROOT).split("_");
+            StringBuilder jsonName = new StringBuilder(words[0]);
+            for (int i = 1; i < words.length; i++) {
+                jsonName.append(Character.toUpperCase(words[i].charAt(0))).append(words[i].substring(1));
+            }
+            return jsonName.toString();
+        }
+    }
+
+    private final Instant started = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final AtomicLongArray phaseNanos = new AtomicLongArray(Phase.values().length);
+    private final AtomicLongArray phaseCounts = new AtomicLongArray(Phase.values().length);
+    private final LatencyHistogram uploadLatency = new LatencyHistogram();
+    private final LatencyHistogram versionLatency = new LatencyHistogram();
+    private volatile long durationNanos = -1;
+
+    void record(final Phase phase, final long nanos) {
+        phaseNanos.addAndGet(phase.ordinal(), nanos);
+        phaseCounts.incrementAndGet(phase.ordinal());
+    }
+
+    /**
+     * Records a deploy request in the upload phase and its latency histogram.
+     */
+    void recordUpload(final long nanos) {
+        record(Phase.UPLOAD, nanos);
+        uploadLatency.record(nanos);
+    }
+
+    /**
+     * Records how long an artifact version took from the start of its deployment until it succeeded or failed.
+     */
+    void recordVersion(final long nanos) {
+        versionLatency.record(nanos);
+    }
+
+    /**
+     * The walk is whatever the scan took besides parsing and queueing, which only holds for a scan on one thread.
+     */
+    void recordScan(final long scanNanos) {
+        long walkNanos = scanNanos - phaseNanos.get(Phase.PARSE.ordinal()) - phaseNanos.get(Phase.QUEUE.ordinal());
+        record(Phase.WALK, Math.max(0, walkNanos));
+    }
+
+    void finish() {
+        durationNanos = System.nanoTime() - startNanos;
+    }
+
+    long getPhaseNanos(final Phase phase) {
+        return phaseNanos.get(phase.ordinal());
+    }
+
+    long getPhaseCount(final Phase phase) {
+        return phaseCounts.get(phase.ordinal());
+    }
+
+    LatencyHistogram getUploadLatency() {
+        return uploadLatency;
+    }
+
+    LatencyHistogram getVersionLatency() {
+        return versionLatency;
+    }
+
+    long getDurationNanos() {
+        return durationNanos >= 0 ? durationNanos : System.nanoTime() - startNanos;
+    }
+
+    /**
+     * Writes the report to a temporary file first so that a report is never left half written.  The counts at the
+     * top are those of the first repository, followed by the counts of every repository under targets.
+     *
+     * @param summaries the summary of the deployment to each repository by repository id
+     */
+    void writeReport(final File reportFile, final Map<String, DeploymentSummary> summaries, final int threads)
+            throws IOException {
+        File parent = reportFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        File temporaryFile = new File(reportFile.getPath() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaryFile.toPath(), StandardCharsets.UTF_8)) {
+            writeReport(new JsonWriter(writer), summaries, threads);
+            writer.write(System.lineSeparator());
+        }
+        Files.move(temporaryFile.toPath(), reportFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void writeReport(final JsonWriter json, final Map<String, DeploymentSummary> summaries,
+                             final int threads) throws IOException {
+        DeploymentSummary summary = summaries.values().iterator().next();
+        double seconds = getDurationNanos() / 1e9;
+        json.beginObject()
+                .name("started").value(started.toString())
+                .name("durationMillis").value(TimeUnit.NANOSECONDS.toMillis(getDurationNanos()))
+                .name("threads").value(threads);
+
+        writeCounts(json.name("counts"), summary);
+
+        json.name("filtered").beginObject();
+        for (FilterReason reason : FilterReason.values()) {
+            json.name(reason.getJsonName()).value(summary.getFilteredCount(reason));
+        }
+        json.endObject();
+
+        json.name("bytes").beginObject()
+                .name("deployed").value(summary.getDeployedBytes())
+                .name("perSecond").value(seconds > 0 ? summary.getDeployedBytes() / seconds : 0)
+                .endObject();
+
+        json.name("phases").beginObject();
+        for (Phase phase : Phase.values()) {
+            json.name(phase.getJsonName()).beginObject()
+                    .name("millis").value(TimeUnit.NANOSECONDS.toMillis(getPhaseNanos(phase)))
+                    .name("count").value(getPhaseCount(phase))
+                    .endObject();
+        }
+        json.endObject();
+
+        json.name("latency").beginObject();
+        writeHistogram(json.name("upload"), uploadLatency);
+        writeHistogram(json.name("version"), versionLatency);
+        json.endObject();
+
+        json.name("targets").beginObject();
+        for (Map.Entry<String, DeploymentSummary> target : summaries.entrySet()) {
+            json.name(target.getKey()).beginObject();
+            writeCounts(json.name("counts"), target.getValue());
+            json.name("bytesDeployed").value(target.getValue().getDeployedBytes());
+            writeFailures(json.name("failures"), target.getValue());
+            json.endObject();
+        }
+        json.endObject();
+
+        writeFailures(json.name("failures"), summary);
+        json.endObject();
+    }
+
+    private static void writeCounts(final JsonWriter json, final DeploymentSummary summary) throws IOException {
+        json.beginObject()
+                .name("deployed").value(summary.getDeployedCount())
+                .name("skipped").value(summary.getSkippedCount())
+                .name("failed").value(summary.getFailedCount())
+                .name("alreadyExists").value(summary.getAlreadyExistsCount())
+                .name("resumed").value(summary.getResumedCount())
+                .name("unchanged").value(summary.getUnchangedCount())
+                .name("checksumIdentical").value(summary.getChecksumIdenticalCount())
+                .name("checksumChanged").value(summary.getChecksumChangedCount())
+                .name("checksumMissing").value(summary.getChecksumMissingCount())
+                .name("checksumsReused").value(summary.getChecksumsReusedCount())
+                .name("checksumsCalculated").value(summary.getChecksumsCalculatedCount())
+                .name("staleChecksumFiles").value(summary.getStaleChecksumFileCount())
+                .name("bundles").value(summary.getBundleCount())
+                .name("bundledFiles").value(summary.getBundledFileCount())
+                .name("retried").value(summary.getRetriedCount())
+                .endObject();
+    }
+
+    private static void writeFailures(final JsonWriter json, final DeploymentSummary summary) throws IOException {
+        json.beginArray();
+        for (String failure : summary.getFailures()) {
+            json.value(failure);
+        }
+        json.endArray();
+    }
+
+    private static void writeHistogram(final JsonWriter json, final LatencyHistogram histogram) throws IOException {
+        json.beginObject()
+                .name("count").value(histogram.getCount())
+                .name("minMillis").value(histogram.getMinNanos() / 1e6)
+                .name("meanMillis").value(histogram.getMeanNanos() / 1e6)
+                .name("p50Millis").value(histogram.getPercentileMillis(50))
+                .name("p90Millis").value(histogram.getPercentileMillis(90))
+                .name("p99Millis").value(histogram.getPercentileMillis(99))
+                .name("maxMillis").value(histogram.getMaxNanos() / 1e6);
+        json.name("buckets").beginArray();
+        for (int bucket = 0; bucket < LatencyHistogram.BUCKETS; bucket++) {
+            if (histogram.getBucketCount(bucket) > 0) {
+                json.beginObject()
+                        .name("lessThanMillis").value(LatencyHistogram.getUpperBoundMillis(bucket))
+                        .name("count").value(histogram.getBucketCount(bucket))
+                        .endObject();
+            }
+        }
+        json.endArray();
+        json.endObject();
+    }
+}
@@ -0,0 +1,241 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.logging.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe tally of the outcome of a bulk deployment.
+ */
+public class DeploymentSummary {
+    private final AtomicLong deployed = new AtomicLong();
+    private final AtomicLong deployedBytes = new AtomicLong();
+    private final AtomicLong alreadyExists = new AtomicLong();
+    private final AtomicLong resumed = new AtomicLong();
+    private final AtomicLong unchanged = new AtomicLong();
+    private final AtomicLong checksumIdentical = new AtomicLong();
+    private final AtomicLong checksumChanged = new AtomicLong();
+    private final AtomicLong checksumMissing = new AtomicLong();
+    private final AtomicLong checksumsReused = new AtomicLong();
+    private final AtomicLong checksumsCalculated = new AtomicLong();
+    private final AtomicLong staleChecksumFiles = new AtomicLong();
+    private final AtomicLong bundles = new AtomicLong();
+    private final AtomicLong bundledFiles = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLongArray filtered = new AtomicLongArray(FilterReason.values().length);
+    private final Queue<String> failures = new ConcurrentLinkedQueue<>();
+
+    void deployed(final Artifact artifact) {
+        deployed.incrementAndGet();
+        if (artifact.getFile() != null) {
+            deployedBytes.addAndGet(artifact.getFile().length());
+        }
+    }
+
+    void alreadyExists(final Artifact artifact) {
+        alreadyExists.incrementAndGet();
+    }
+
+    void resumed(final String gav) {
+        resumed.incrementAndGet();
+    }
+
+    void unchanged(final long versions) {
+        unchanged.addAndGet(versions);
+    }
+
+    void checksumIdentical(final Artifact artifact) {
+        checksumIdentical.incrementAndGet();
+    }
+
+    void checksumChanged(final Artifact artifact) {
+        checksumChanged.incrementAndGet();
+    }
+
+    void checksumMissing(final Artifact artifact) {
+        checksumMissing.incrementAndGet();
+    }
+
+    void checksumsReused(final int count) {
+        checksumsReused.addAndGet(count);
+    }
+
+    void checksumsCalculated(final int count) {
+        checksumsCalculated.addAndGet(count);
+    }
+
+    /**
+     * Records a release file whose .sha1 or .md5 file does not match it.
+     */
+    void staleChecksumFile(final Artifact artifact) {
+        staleChecksumFiles.incrementAndGet();
+    }
+
+    void bundled(final int fileCount) {
+        bundles.incrementAndGet();
+        bundledFiles.addAndGet(fileCount);
+    }
+
+    void retried(final String deploymentUnit) {
+        retried.incrementAndGet();
+    }
+
+    void filtered(final FilterReason reason) {
+        filtered.incrementAndGet(reason.ordinal());
+    }
+
+    void failed(final String deploymentUnit, final String reason) {
+        failures.add(String.format("%s: %s", deploymentUnit, reason));
+    }
+
+    public long getDeployedCount() {
+        return deployed.get();
+    }
+
+    public long getDeployedBytes() {
+        return deployedBytes.get();
+    }
+
+    /**
+     * @return the files and versions that were not deployed because the remote repository already had them
+     */
+    public long getSkippedCount() {
+        return getAlreadyExistsCount() + getResumedCount() + getUnchangedCount() + getChecksumIdenticalCount();
+    }
+
+    public long getAlreadyExistsCount() {
+        return alreadyExists.get();
+    }
+
+    public long getResumedCount() {
+        return resumed.get();
+    }
+
+    /**
+     * @return the version directories that the scan index lists as deployed and that have not changed since
+     */
+    public long getUnchangedCount() {
+        return unchanged.get();
+    }
+
+    public long getChecksumIdenticalCount() {
+        return checksumIdentical.get();
+    }
+
+    public long getChecksumChangedCount() {
+        return checksumChanged.get();
+    }
+
+    public long getChecksumMissingCount() {
+        return checksumMissing.get();
+    }
+
+    public long getChecksumsReusedCount() {
+        return checksumsReused.get();
+    }
+
+    public long getChecksumsCalculatedCount() {
+        return checksumsCalculated.get();
+    }
+
+    public long getStaleChecksumFileCount() {
+        return staleChecksumFiles.get();
+    }
+
+    public long getBundleCount() {
+        return bundles.get();
+    }
+
+    public long getBundledFileCount() {
+        return bundledFiles.get();
+    }
+
+    public long getRetriedCount() {
+        return retried.get();
+    }
+
+    /**
+     * @return the local files that were not deployed for the reason
+     */
+    long getFilteredCount(final FilterReason reason) {
+        return filtered.get(reason.ordinal());
+    }
+
+    public long getFilteredCount() {
+        long count = 0;
+        for (FilterReason reason : FilterReason.values()) {
+            count += getFilteredCount(reason);
+        }
+        return count;
+    }
+
+    public long getFailedCount() {
+        return failures.size();
+    }
+
+    public List<String> getFailures() {
+        return new ArrayList<>(failures);
+    }
+
+    public boolean hasFailures() {
+        return !failures.isEmpty();
+    }
+
+    void log(final Log log) {
+        log.info(String.format("%d artifact(s) deployed, %d already existed, %d version(s) failed",
+                getDeployedCount(), getAlreadyExistsCount(), getFailedCount()));
+        if (getFilteredCount() > 0) {
+            StringBuilder reasons = new StringBuilder();
+            for (FilterReason reason : FilterReason.values()) {
+                if (getFilteredCount(reason) > 0) {
+                    reasons.append(reasons.length() > 0 ? ", " : "")
+                            .append(getFilteredCount(reason)).append(' ').append(reason.getDescription());
+                }
+            }
+            log.info(String.format("%d file(s) not deployed: %s", getFilteredCount(), reasons));
+        }
+        if (getResumedCount() > 0) {
+            log.info(String.format("%d version(s) skipped because the journal lists them as deployed",
+                    getResumedCount()));
+        }
+        if (getUnchangedCount() > 0) {
+            log.info(String.format("%d version directory(ies) skipped because they did not change since they were "
+                    + "deployed", getUnchangedCount()));
+        }
+        if (getChecksumIdenticalCount() + getChecksumChangedCount() + getChecksumMissingCount() > 0) {
+            log.info(String.format("checksum comparison: %d identical, %d changed, %d missing in repo",
+                    getChecksumIdenticalCount(), getChecksumChangedCount(), getChecksumMissingCount()));
+        }
+        if (getChecksumsReusedCount() > 0) {
+            log.info(String.format("%d artifact(s) uploaded with the checksums of their .sha1 and .md5 files",
+                    getChecksumsReusedCount()));
+        }
+        if (getChecksumsCalculatedCount() > 0) {
+            log.info(String.format("%d large file(s) uploaded with checksums calculated in one pass",
+                    getChecksumsCalculatedCount()));
+        }
+        if (getStaleChecksumFileCount() > 0) {
+            log.warn(String.format("%d artifact(s) have .sha1 or .md5 files that do not match them and were uploaded "
+                    + "with calculated checksums", getStaleChecksumFileCount()));
+        }
+        if (getBundleCount() > 0) {
+            log.info(String.format("%d artifact(s) uploaded in %d bundle(s)", getBundledFileCount(),
+                    getBundleCount()));
+        }
+        if (getRetriedCount() > 0) {
+            log.info(String.format("%d deployment attempt(s) were retried", getRetriedCount()));
+        }
+        if (hasFailures()) {
+            log.error(String.format("the following %d artifact version(s) failed deployment:", getFailedCount()));
+            for (String failure : failures) {
+                log.error(String.format("failed: %s", failure));
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.project.ProjectBuildingRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * A repository the artifacts of a run are deployed to, with everything the run keeps for it.  Every target has
+ * lanes of its own, so a slow target does not hold up a faster one until the queues of its lanes are full.  It
+ * tracks its own outcome and stops on its own when it exceeds the failure budget.
+ */
+final class DeploymentTarget implements Closeable {
+
+    private final ArtifactRepository artifactRepository;
+    private final DeploymentSummary summary;
+    private final ProjectBuildingRequest projectBuildingRequest;
+    private final RemoteSync remoteSync;
+    private final SidecarChecksums sidecarChecksums;
+    private final AdaptiveConcurrencyLimit concurrencyLimit;
+    private final RemoteRepositoryClient bundleClient;
+    private final DeploymentExecutor executor;
+    private final AtomicBoolean aborted = new AtomicBoolean();
+    private final AtomicReference<Exception> firstFailure = new AtomicReference<>();
+    private Bundle openBundle;
+    private int bundleCount;
+
+    /**
+     * @param remoteSync null to upload every file
+     * @param sidecarChecksums null to leave all checksums to the deployer
+     * @param concurrencyLimit null for as many deployments in flight as there are lanes
+     * @param bundleClient null to deploy release versions file by file
+     */
+    DeploymentTarget(final ArtifactRepository artifactRepository, final DeploymentSummary summary,
+                     final ProjectBuildingRequest projectBuildingRequest, final RemoteSync remoteSync,
+                     final SidecarChecksums sidecarChecksums, final AdaptiveConcurrencyLimit concurrencyLimit,
+                     final RemoteRepositoryClient bundleClient, final DeploymentExecutor executor) {
+        this.artifactRepository = notNull(artifactRepository, "artifactRepository is null");
+        this.summary = notNull(summary, "summary is null");
+        this.projectBuildingRequest = notNull(projectBuildingRequest, "projectBuildingRequest is null");
+        this.remoteSync = remoteSync;
+        this.sidecarChecksums = sidecarChecksums;
+        this.concurrencyLimit = concurrencyLimit;
+        this.bundleClient = bundleClient;
+        this.executor = notNull(executor, "executor is null");
+    }
+
+    String getId() {
+        return artifactRepository.getId();
+    }
+
+    ArtifactRepository getArtifactRepository() {
+        return artifactRepository;
+    }
+
+    DeploymentSummary getSummary() {
+        return summary;
+    }
+
+    ProjectBuildingRequest getProjectBuildingRequest() {
+        return projectBuildingRequest;
+    }
+
+    RemoteSync getRemoteSync() {
+        return remoteSync;
+    }
+
+    SidecarChecksums getSidecarChecksums() {
+        return sidecarChecksums;
+    }
+
+    AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    RemoteRepositoryClient getBundleClient() {
+        return bundleClient;
+    }
+
+    DeploymentExecutor getExecutor() {
+        return executor;
+    }
+
+    boolean isAborted() {
+        return aborted.get();
+    }
+
+    /**
+     * @return true when the target was not aborted before
+     */
+    boolean abort() {
+        return aborted.compareAndSet(false, true);
+    }
+
+    void failed(final Exception e) {
+        firstFailure.compareAndSet(null, e);
+    }
+
+    Exception getFirstFailure() {
+        return firstFailure.get();
+    }
+
+    /**
+     * @return the open bundle when the version filled it up, otherwise null
+     */
+    synchronized Bundle addToBundle(final PendingVersion version, final long bundleSize) {
+        if (openBundle == null) {
+            openBundle = new Bundle(++bundleCount);
+        }
+        openBundle.add(version);
+        return openBundle.getSize() >= bundleSize ? takeOpenBundle() : null;
+    }
+
+    synchronized Bundle takeOpenBundle() {
+        Bundle bundle = openBundle;
+        openBundle = null;
+        return bundle;
+    }
+
+    /**
+     * Stops the lanes and deletes the checksums calculated for the target.
+     */
+    @Override
+    public void close() throws IOException {
+        executor.close();
+        if (sidecarChecksums != null) {
+            sidecarChecksums.close();
+        }
+    }
+}
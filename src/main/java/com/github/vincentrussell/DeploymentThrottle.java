@@ -0,0 +1,95 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferCancelledException;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.util.listener.ChainedTransferListener;
+
+import java.util.Set;
+
+/**
+ * Caps the requests per second and upload bytes per second of all deploy threads together.  The deployer reports
+ * every transfer to the transfer listener of the repository session from the thread doing the transfer, so
+ * waiting in the listener holds back each request before it starts and each chunk before it is written.  The
+ * checksum uploads that follow a file are not reported, so they are paid for when the upload of the file starts.
+ */
+final class DeploymentThrottle extends AbstractTransferListener {
+
+    private static final Set<String> CHECKSUM_EXTENSIONS = Set.of(Checksums.SHA1, Checksums.MD5, "sha256", "sha512");
+
+    private final TokenBucket requests;
+    private final TokenBucket uploadBytes;
+    private final int checksumsPerUpload;
+
+    /**
+     * @param maxRequestsPerSecond 0 for no limit
+     * @param maxBytesPerSecond 0 for no limit
+     * @param checksumsPerUpload number of checksum files the deployer uploads with each file
+     */
+    DeploymentThrottle(final long maxRequestsPerSecond, final long maxBytesPerSecond, final int checksumsPerUpload) {
+        this.requests = maxRequestsPerSecond > 0 ? new TokenBucket(maxRequestsPerSecond) : null;
+        this.uploadBytes = maxBytesPerSecond > 0 ? new TokenBucket(maxBytesPerSecond) : null;
+        this.checksumsPerUpload = checksumsPerUpload;
+    }
+
+    /**
+     * @return a copy of the request whose repository session reports its transfers to this throttle as well
+     */
+    ProjectBuildingRequest apply(final ProjectBuildingRequest projectBuildingRequest) {
+        RepositorySystemSession session = projectBuildingRequest.getRepositorySession();
+        DefaultRepositorySystemSession throttledSession = new DefaultRepositorySystemSession(session);
+        throttledSession.setTransferListener(ChainedTransferListener.newInstance(session.getTransferListener(), this));
+        return new DefaultProjectBuildingRequest(projectBuildingRequest).setRepositorySession(throttledSession);
+    }
+
+    /**
+     * Waits until one more request is allowed.
+     */
+    void acquireRequest() throws InterruptedException {
+        acquireRequests(1);
+    }
+
+    private void acquireRequests(final int count) throws InterruptedException {
+        if (requests != null) {
+            requests.acquire(count);
+        }
+    }
+
+    @Override
+    public void transferInitiated(final TransferEvent event) throws TransferCancelledException {
+        boolean uploadWithChecksums = event.getRequestType() == TransferEvent.RequestType.PUT
+                && !isChecksum(event.getResource().getResourceName());
+        try {
+            acquireRequests(uploadWithChecksums ? 1 + checksumsPerUpload : 1);
+        } catch (InterruptedException e) {
+            throw cancelled(event);
+        }
+    }
+
+    @Override
+    public void transferProgressed(final TransferEvent event) throws TransferCancelledException {
+        if (uploadBytes == null || event.getRequestType() != TransferEvent.RequestType.PUT) {
+            return;
+        }
+        try {
+            uploadBytes.acquire(event.getDataLength());
+        } catch (InterruptedException e) {
+            throw cancelled(event);
+        }
+    }
+
+    private static boolean isChecksum(final String resourceName) {
+        String extension = resourceName.substring(resourceName.lastIndexOf('.') + 1);
+        return CHECKSUM_EXTENSIONS.contains(extension);
+    }
+
+    private TransferCancelledException cancelled(final TransferEvent event) {
+        Thread.currentThread().interrupt();
+        return new TransferCancelledException(String.format("transfer of %s was interrupted",
+                event.getResource().getResourceName()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.vincentrussell;
+
+/**
+ * Why a file found in the local repository was not deployed.
+ */
+enum FilterReason {
+    /** the file is not named like an artifact of the version directory it is in. */
+    NOT_AN_ARTIFACT("notAnArtifact", "not an artifact"),
+    /** a .sha1 or .md5 file that is not deployed as an artifact of its own. */
+    CHECKSUM_FILE("checksumFile", "checksum file"),
+    /** a snapshot while only releases are deployed. */
+    SNAPSHOT("snapshot", "snapshot"),
+    /** a release while only snapshots are deployed. */
+    RELEASE("release", "release"),
+    /** the groupId is not the requested one. */
+    GROUP_ID("groupId", "other groupId"),
+    /** the artifactId is not the requested one. */
+    ARTIFACT_ID("artifactId", "other artifactId"),
+    /** the artifact belongs to another shard. */
+    SHARD("shard", "other shard");
+
+    private final String jsonName;
+    private final String description;
+
+    FilterReason(final String jsonName, final String description) {
+        this.jsonName = jsonName;
+        this.description = description;
+    }
+
+    String getJsonName() {
+        return jsonName;
+    }
+
+    String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.vincentrussell;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Just enough of a streaming JSON writer for the run report, so that the plugin does not need a JSON library.
+ */
+final class JsonWriter {
+
+    private final Writer writer;
+    private boolean first = true;
+
+    JsonWriter(final Writer writer) {
+        this.writer = writer;
+    }
+
+    JsonWriter beginObject() throws IOException {
+        separate();
+        writer.write('{');
+        first = true;
+        return this;
+    }
+
+    JsonWriter endObject() throws IOException {
+        writer.write('}');
+        first = false;
+        return this;
+    }
+
+    JsonWriter beginArray() throws IOException {
+        separate();
+        writer.write('[');
+        first = true;
+        return this;
+    }
+
+    JsonWriter endArray() throws IOException {
+        writer.write(']');
+        first = false;
+        return this;
+    }
+
+    /**
+     * Writes the name of the next member of an object.  The value that follows must not be separated from it.
+     */
+    JsonWriter name(final String name) throws IOException {
+        separate();
+        string(name);
+        writer.write(':');
+        first = true;
+        return this;
+    }
+
+    JsonWriter value(final String value) throws IOException {
+        separate();
+        if (value == null) {
+            writer.write("null");
+        } else {
+            string(value);
+        }
+        first = false;
+        return this;
+    }
+
+    JsonWriter value(final long value) throws IOException {
+        separate();
+        writer.write(Long.toString(value));
+        first = false;
+        return this;
+    }
+
+    JsonWriter value(final double value) throws IOException {
+        separate();
+        writer.write(Double.isFinite(value) ? Double.toString(value) : "null");
+        first = false;
+        return this;
+    }
+
+    private void separate() throws IOException {
+        if (!first) {
+            writer.write(',');
+        }
+    }
+
+    private void string(final String value) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> writer.write("\\\"");
+                case '\\' -> writer.write("\\\\");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                case '\t' -> writer.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                }
+            }
+        }
+        writer.write('"');
+    }
+}
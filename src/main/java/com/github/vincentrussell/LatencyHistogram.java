@@ -0,0 +1,83 @@
+package com.github.vincentrussell;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of latencies with power of two millisecond buckets: bucket 0 counts everything below 1 ms
+ * and bucket n everything from 2^(n-1) up to 2^n ms.  Percentiles are reported as the upper bound of the bucket
+ * they fall into, which is precise enough to compare runs and cheap enough to record every request.
+ */
+final class LatencyHistogram {
+
+    static final int BUCKETS = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong minNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    void record(final long nanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(Math.max(0, nanos));
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+        counts.incrementAndGet(bucket);
+        count.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        minNanos.accumulateAndGet(nanos, Math::min);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    long getCount() {
+        return count.get();
+    }
+
+    long getTotalNanos() {
+        return totalNanos.get();
+    }
+
+    long getMinNanos() {
+        return getCount() == 0 ? 0 : minNanos.get();
+    }
+
+    long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    long getMeanNanos() {
+        long recorded = getCount();
+        return recorded == 0 ? 0 : getTotalNanos() / recorded;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the upper bound in milliseconds of the bucket the percentile falls into, never more than the maximum
+     */
+    double getPercentileMillis(final double percentile) {
+        long recorded = getCount();
+        if (recorded == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * recorded);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) {
+                return Math.min(getUpperBoundMillis(bucket), getMaxNanos() / 1e6);
+            }
+        }
+        return getMaxNanos() / 1e6;
+    }
+
+    long getBucketCount(final int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * @return the exclusive upper bound of the bucket in milliseconds
+     */
+    static long getUpperBoundMillis(final int bucket) {
+        return 1L << bucket;
+    }
+}
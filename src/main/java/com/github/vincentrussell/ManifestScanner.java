@@ -0,0 +1,136 @@
+package com.github.vincentrussell;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Replays a manifest instead of walking the repository.  Lines in the format written by a dry run (see
+ * {@link DeploymentManifest}) name their files, so they are handed to the consumer without touching the file
+ * system at all.  A line can also name just a version directory, with or without the groupId:artifactId:version
+ * in front of it, and then only that directory is listed.  Directories are relative to the repository directory
+ * unless they are absolute.  The manifest is streamed, so it can be of any size.  Lines for directories that do
+ * not pass the path filter are skipped.
+ */
+final class ManifestScanner {
+
+    private final File manifestFile;
+    private final Path repositoryDirectory;
+    private final PathFilter pathFilter;
+
+    /**
+     * @param pathFilter null to deploy every line
+     */
+    ManifestScanner(final File manifestFile, final File repositoryDirectory, final PathFilter pathFilter) {
+        notNull(manifestFile, "manifestFile is null");
+        notNull(repositoryDirectory, "repositoryDirectory is null");
+        this.manifestFile = manifestFile;
+        this.repositoryDirectory = repositoryDirectory.toPath();
+        this.pathFilter = pathFilter;
+    }
+
+    /**
+     * Read the manifest, stopping early when the consumer returns false.
+     */
+    void scan(final RepositoryScanner.DirectoryConsumer consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (isEntry(line)) {
+                    String[] fields = line.split("\t");
+                    File directory = repositoryDirectory.resolve(fields[fields.length == 1 ? 0 : 1]).toFile();
+                    if (!isIncluded(directory)) {
+                        continue;
+                    }
+                    List<File> files = fields.length > 2 ? getFiles(directory, fields, lineNumber)
+                            : listFiles(directory, lineNumber);
+                    if (!files.isEmpty() && !consumer.accept(directory, files)) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds up the sizes recorded in the manifest.  Nothing is estimated when a line does not list its files.
+     */
+    void estimateSize(final ProgressReporter progress) throws IOException {
+        long files = 0;
+        long bytes = 0;
+        try (BufferedReader reader = Files.newBufferedReader(manifestFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null && !progress.isClosed()) {
+                lineNumber++;
+                if (isEntry(line)) {
+                    String[] fields = line.split("\t");
+                    if (fields.length <= 2) {
+                        return;
+                    }
+                    if (!isIncluded(repositoryDirectory.resolve(fields[1]).toFile())) {
+                        continue;
+                    }
+                    for (int i = 2; i < fields.length; i++) {
+                        files++;
+                        bytes += getSize(fields[i], lineNumber);
+                    }
+                }
+            }
+        }
+        progress.estimated(files, bytes);
+    }
+
+    private boolean isIncluded(final File directory) {
+        return pathFilter == null || pathFilter.getState(repositoryDirectory, directory.toPath()).isIncluded();
+    }
+
+    private boolean isEntry(final String line) {
+        return !line.isBlank() && !line.startsWith(DeploymentManifest.COMMENT);
+    }
+
+    private List<File> getFiles(final File directory, final String[] fields, final int lineNumber)
+            throws IOException {
+        List<File> files = new ArrayList<>(fields.length - 2);
+        for (int i = 2; i < fields.length; i++) {
+            getSize(fields[i], lineNumber);
+            files.add(new File(directory, fields[i].substring(fields[i].indexOf(' ') + 1)));
+        }
+        return files;
+    }
+
+    /**
+     * @param file size and name of a file separated by a space
+     */
+    private long getSize(final String file, final int lineNumber) throws IOException {
+        int separator = file.indexOf(' ');
+        try {
+            if (separator > 0 && separator < file.length() - 1) {
+                return Long.parseLong(file.substring(0, separator));
+            }
+        } catch (NumberFormatException e) {
+            //reported below
+        }
+        throw new IOException(String.format("line %d of %s has \"%s\" where the size and name of a file are "
+                + "expected", lineNumber, manifestFile.getAbsolutePath(), file));
+    }
+
+    private List<File> listFiles(final File directory, final int lineNumber) throws IOException {
+        File[] files = directory.listFiles(File::isFile);
+        if (files == null) {
+            throw new IOException(String.format("%s on line %d of %s is not a directory",
+                    directory.getAbsolutePath(), lineNumber, manifestFile.getAbsolutePath()));
+        }
+        return Arrays.asList(files);
+    }
+}
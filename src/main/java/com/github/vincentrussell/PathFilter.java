@@ -0,0 +1,288 @@
+package com.github.vincentrussell;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notBlank;
+
+/**
+ * Decides while the repository is walked which directories can hold artifacts that pass the filters, so that the
+ * subtrees that cannot are skipped without being listed.  Patterns look like groupId[:artifactId[:version]] and
+ * are split into path segments, the groupId at its dots.  In a segment * and ? are wildcards, and a segment of **
+ * matches any number of segments.  A plain groupId pattern matches the directory of its last segment and
+ * everything below it, so org.example covers the groupIds org.example and org.example.tools alike.  A pattern with
+ * an artifactId only matches the version directories of that artifactId, so org.example:tools does not cover the
+ * groupId org.example.tools.
+ * <p>
+ * A directory is included when it matches one pattern of every include group and no exclude pattern.  The
+ * patterns of a group share one prefix tree, so a directory is matched against all of them in one step per path
+ * segment, however many patterns there are.
+ */
+final class PathFilter {
+
+    private final List<Node> includeGroups;
+    private final Node excludes;
+
+    private PathFilter(final List<Node> includeGroups, final Node excludes) {
+        this.includeGroups = includeGroups;
+        this.excludes = excludes;
+    }
+
+    /**
+     * @return the state of the directory, which has to be the repository directory or below it
+     */
+    State getState(final Path repositoryDirectory, final Path directory) {
+        State state = getRootState();
+        for (Path segment : repositoryDirectory.toAbsolutePath().normalize()
+                .relativize(directory.toAbsolutePath().normalize())) {
+            if (state.isPruned()) {
+                break;
+            }
+            if (!segment.toString().isEmpty()) {
+                state = state.getChild(segment.toString());
+            }
+        }
+        return state;
+    }
+
+    State getRootState() {
+        List<Set<Node>> includeStates = new ArrayList<>(includeGroups.size());
+        for (Node group : includeGroups) {
+            includeStates.add(closure(Set.of(group)));
+        }
+        return new State(includeStates, excludes != null ? closure(Set.of(excludes)) : Set.of());
+    }
+
+    /**
+     * The nodes that are live after some path segments, for every include group and for the excludes.  An include
+     * group that has matched a whole subtree is represented by null.
+     */
+    static final class State {
+        private final List<Set<Node>> includes;
+        private final Set<Node> excludes;
+
+        private State(final List<Set<Node>> includes, final Set<Node> excludes) {
+            this.includes = includes;
+            this.excludes = excludes;
+        }
+
+        State getChild(final String name) {
+            List<Set<Node>> childIncludes = new ArrayList<>(includes.size());
+            for (Set<Node> nodes : includes) {
+                childIncludes.add(nodes == null || isSubtreeMatched(nodes) ? null : step(nodes, name));
+            }
+            return new State(childIncludes, isSubtreeMatched(excludes) ? excludes : step(excludes, name));
+        }
+
+        /**
+         * @return whether nothing in or below the directory can pass the filters
+         */
+        boolean isPruned() {
+            if (isSubtreeMatched(excludes)) {
+                return true;
+            }
+            for (Set<Node> nodes : includes) {
+                if (nodes != null && nodes.isEmpty()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @return whether the files in the directory pass the filters
+         */
+        boolean isIncluded() {
+            if (isMatched(excludes)) {
+                return false;
+            }
+            for (Set<Node> nodes : includes) {
+                if (nodes != null && !isMatched(nodes)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isMatched(final Set<Node> nodes) {
+            for (Node node : nodes) {
+                if (node.terminal) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static boolean isSubtreeMatched(final Set<Node> nodes) {
+            for (Node node : nodes) {
+                if (node.coversSubtree) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static Set<Node> step(final Set<Node> nodes, final String name) {
+            Set<Node> next = new HashSet<>();
+            for (Node node : nodes) {
+                if (node.anySegments) {
+                    next.add(node);
+                }
+                Node literal = node.literals.get(name);
+                if (literal != null) {
+                    next.add(literal);
+                }
+                for (Map.Entry<Pattern, Node> wildcard : node.wildcards.entrySet()) {
+                    if (wildcard.getKey().matcher(name).matches()) {
+                        next.add(wildcard.getValue());
+                    }
+                }
+            }
+            return closure(next);
+        }
+    }
+
+    /**
+     * Adds the ** nodes that can match zero segments.
+     */
+    private static Set<Node> closure(final Set<Node> nodes) {
+        Set<Node> closure = new HashSet<>(nodes);
+        List<Node> pending = new ArrayList<>(nodes);
+        while (!pending.isEmpty()) {
+            Node anySegments = pending.remove(pending.size() - 1).anySegmentsChild;
+            if (anySegments != null && closure.add(anySegments)) {
+                pending.add(anySegments);
+            }
+        }
+        return closure;
+    }
+
+    private static final class Node {
+        private final Map<String, Node> literals = new HashMap<>();
+        private final Map<Pattern, Node> wildcards = new HashMap<>();
+        private final Map<String, Pattern> wildcardPatterns = new HashMap<>();
+        private final boolean anySegments;
+        private Node anySegmentsChild;
+        private boolean terminal;
+        private boolean coversSubtree;
+
+        private Node(final boolean anySegments) {
+            this.anySegments = anySegments;
+        }
+
+        private void add(final Segments segments) {
+            Node node = this;
+            for (String segment : segments.names) {
+                node = node.getOrCreateChild(segment);
+            }
+            node.terminal = true;
+            node.coversSubtree |= segments.coversSubtree;
+        }
+
+        private Node getOrCreateChild(final String segment) {
+            if ("**".equals(segment)) {
+                if (anySegmentsChild == null) {
+                    anySegmentsChild = new Node(true);
+                }
+                return anySegmentsChild;
+            } else if (segment.contains("*") || segment.contains("?")) {
+                Pattern pattern = wildcardPatterns.computeIfAbsent(segment, Node::toRegex);
+                return wildcards.computeIfAbsent(pattern, p -> new Node(false));
+            }
+            return literals.computeIfAbsent(segment, s -> new Node(false));
+        }
+
+        private static Pattern toRegex(final String glob) {
+            StringBuilder regex = new StringBuilder();
+            for (char c : glob.toCharArray()) {
+                if (c == '*') {
+                    regex.append(".*");
+                } else if (c == '?') {
+                    regex.append('.');
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return Pattern.compile(regex.toString());
+        }
+    }
+
+    static final class Builder {
+        private final List<Node> includeGroups = new ArrayList<>();
+        private Node excludes;
+
+        /**
+         * Adds a group of patterns of which a directory has to match at least one.  Nothing is added for an empty
+         * group.
+         */
+        Builder include(final List<String> patterns) {
+            if (patterns != null && !patterns.isEmpty()) {
+                Node group = new Node(false);
+                for (String pattern : patterns) {
+                    group.add(toSegments(pattern));
+                }
+                includeGroups.add(group);
+            }
+            return this;
+        }
+
+        Builder exclude(final List<String> patterns) {
+            if (patterns != null) {
+                for (String pattern : patterns) {
+                    if (excludes == null) {
+                        excludes = new Node(false);
+                    }
+                    excludes.add(toSegments(pattern));
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @return the filter or null when nothing is filtered
+         */
+        PathFilter build() {
+            return includeGroups.isEmpty() && excludes == null ? null : new PathFilter(includeGroups, excludes);
+        }
+
+        /**
+         * The segments of an artifactId pattern end at the version directory, for which * is added when the
+         * pattern has no version.
+         */
+        private static Segments toSegments(final String pattern) {
+            notBlank(pattern, "pattern is blank");
+            String[] coordinates = pattern.trim().split(":", -1);
+            isTrue(coordinates.length <= 3, "%s is not a groupId[:artifactId[:version]] pattern", pattern);
+            List<String> segments = new ArrayList<>();
+            for (String groupSegment : coordinates[0].split("\\.", -1)) {
+                isTrue(!groupSegment.isEmpty(), "%s has an empty groupId segment", pattern);
+                segments.add(groupSegment);
+            }
+            for (int i = 1; i < coordinates.length; i++) {
+                isTrue(!coordinates[i].isEmpty(), "%s has an empty coordinate", pattern);
+                segments.add(coordinates[i]);
+            }
+            if (coordinates.length == 2) {
+                segments.add("*");
+            }
+            return new Segments(segments, coordinates.length == 1);
+        }
+    }
+
+    private static final class Segments {
+        private final List<String> names;
+        private final boolean coversSubtree;
+
+        private Segments(final List<String> names, final boolean coversSubtree) {
+            this.names = names;
+            this.coversSubtree = coversSubtree;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.Artifact;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notEmpty;
+
+/**
+ * An artifact version on its way to every target repository.  The version was read from the local repository once
+ * and the checksums calculated for one target are kept here for the others, until the last target is done with it.
+ * Only then is its outcome known, because a version only counts as deployed once it is in all the targets.
+ */
+final class PendingVersion {
+
+    private final List<Artifact> artifacts;
+    private final AtomicInteger pendingTargets;
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private final AtomicBoolean aborted = new AtomicBoolean();
+    private final Map<File, Map<String, String>> calculatedChecksums = new ConcurrentHashMap<>();
+
+    /**
+     * @param artifacts the files of the version, all in the same directory
+     * @param targets the number of target repositories the version is deployed to
+     */
+    PendingVersion(final List<Artifact> artifacts, final int targets) {
+        notEmpty(artifacts, "artifacts is empty");
+        isTrue(targets > 0, "targets must be greater than 0 but was %d", targets);
+        this.artifacts = artifacts;
+        this.pendingTargets = new AtomicInteger(targets);
+    }
+
+    List<Artifact> getArtifacts() {
+        return artifacts;
+    }
+
+    String getGav() {
+        Artifact artifact = artifacts.get(0);
+        return artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getVersion();
+    }
+
+    File getDirectory() {
+        return artifacts.get(0).getFile().getParentFile();
+    }
+
+    /**
+     * @return the checksums calculated for the files of the version by file, shared by all targets
+     */
+    Map<File, Map<String, String>> getCalculatedChecksums() {
+        return calculatedChecksums;
+    }
+
+    /**
+     * Records what became of the version on one target.
+     *
+     * @param status whether the version ended up deployed or failed, or null when the deployment was aborted
+     * @return true when this was the last target the version was pending on
+     */
+    boolean completed(final ScanIndex.Status status) {
+        if (status == null) {
+            aborted.set(true);
+        } else if (ScanIndex.Status.FAILED.equals(status)) {
+            failed.set(true);
+        }
+        if (pendingTargets.decrementAndGet() > 0) {
+            return false;
+        }
+        calculatedChecksums.clear();
+        return true;
+    }
+
+    /**
+     * @return failed when it failed on any target, otherwise null when it was aborted on any target, otherwise
+     * deployed
+     */
+    ScanIndex.Status getStatus() {
+        if (failed.get()) {
+            return ScanIndex.Status.FAILED;
+        }
+        return aborted.get() ? null : ScanIndex.Status.DEPLOYED;
+    }
+}
@@ -0,0 +1,254 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Logs how far a bulk deployment has got at a fixed interval instead of a line per artifact.  The size of the
+ * deployment can be estimated on a background thread, from a manifest or by a second walk that only adds up file
+ * sizes, so deployment does not wait for it and progress is logged without an ETA until it is done.  The second
+ * walk lists every directory again, which is why it is only done when asked for.  Progress is measured
+ * in bytes of the files that are done with, whether they were deployed, skipped or filtered out, and the ETA
+ * assumes the rest goes at the average rate so far.
+ */
+final class ProgressReporter implements AutoCloseable {
+
+    private final Log log;
+    private final DeploymentSummary summary;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    private final AtomicLong scannedFiles = new AtomicLong();
+    private final AtomicLong completedBytes = new AtomicLong();
+    private volatile long estimatedFiles = -1;
+    private volatile long estimatedBytes = -1;
+    private volatile boolean closed;
+    private ScheduledExecutorService scheduler;
+
+    ProgressReporter(final Log log, final DeploymentSummary summary) {
+        this(log, summary, System::nanoTime);
+    }
+
+    ProgressReporter(final Log log, final DeploymentSummary summary, final LongSupplier nanoClock) {
+        this.log = log;
+        this.summary = summary;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Starts estimating the size of the deployment and logging progress every interval.
+     *
+     * @param sizeEstimate null to log progress without an ETA
+     */
+    ProgressReporter start(final SizeEstimate sizeEstimate, final long intervalMillis) {
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "bulk-deploy-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (sizeEstimate != null) {
+            scheduler.execute(() -> {
+                try {
+                    sizeEstimate.estimate(this);
+                } catch (IOException e) {
+                    log.debug(String.format("unable to estimate the size of the deployment because %s",
+                            e.getMessage()));
+                }
+            });
+        }
+        scheduler.scheduleAtFixedRate(() -> log.info(getProgress()), intervalMillis, intervalMillis,
+                TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    /**
+     * @param startState state of the directory in the path filter or null to count every file
+     * @return an estimate that adds up the sizes of the regular files in the directory that pass the path filter
+     */
+    static SizeEstimate directorySize(final File directory, final PathFilter.State startState) {
+        return directorySize(directory, directory, startState, null, null);
+    }
+
+    /**
+     * @param repositoryDirectory the repository directory the directory is in
+     * @param startState state of the directory in the path filter or null to count every file
+     * @param shard null to count the files of every shard
+     * @param scanIndex null to count the files of unchanged directories as well
+     * @return an estimate that adds up the sizes of the regular files in the directory that the walk of the
+     * deployment does not skip, so that directories skipped as unchanged do not count towards the size of the
+     * deployment
+     */
+    static SizeEstimate directorySize(final File repositoryDirectory, final File directory,
+                                      final PathFilter.State startState, final Shard shard,
+                                      final ScanIndex scanIndex) {
+        return progress -> {
+            final long[] totals = new long[2];
+            final Deque<ListedDirectory> directories = new ArrayDeque<>();
+            Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<>() {
+
+                @Override
+                public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                    if (shard != null && shard.isPruned(repositoryDirectory.toPath(), dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    PathFilter.State state = startState;
+                    if (!directories.isEmpty()) {
+                        directories.peek().leaf = false;
+                        if (state != null) {
+                            state = directories.peek().state.getChild(dir.getFileName().toString());
+                        }
+                    }
+                    if (state != null && state.isPruned()) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    directories.push(new ListedDirectory(attrs.lastModifiedTime().toMillis(), state));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) {
+                    ListedDirectory listed = directories.pop();
+                    if (scanIndex == null || !listed.leaf || !scanIndex.isUnchanged(dir, new ScanIndex.Fingerprint(
+                            listed.lastModified, listed.size, listed.newestFileModified))) {
+                        totals[0] += listed.files;
+                        totals[1] += listed.bytes;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && !directories.isEmpty()) {
+                        ListedDirectory listed = directories.peek();
+                        listed.size += attrs.size();
+                        listed.newestFileModified = Math.max(listed.newestFileModified,
+                                attrs.lastModifiedTime().toMillis());
+                        if (listed.state == null || listed.state.isIncluded()) {
+                            listed.files++;
+                            listed.bytes += attrs.size();
+                        }
+                    }
+                    return progress.isClosed() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            progress.estimated(totals[0], totals[1]);
+        };
+    }
+
+    /**
+     * The counts of a directory on the path of the estimating walk.
+     */
+    private static final class ListedDirectory {
+        private final long lastModified;
+        private final PathFilter.State state;
+        private boolean leaf = true;
+        private long size;
+        private long newestFileModified;
+        private long files;
+        private long bytes;
+
+        private ListedDirectory(final long lastModified, final PathFilter.State state) {
+            this.lastModified = lastModified;
+            this.state = state;
+        }
+    }
+
+    void estimated(final long files, final long bytes) {
+        if (!closed) {
+            estimatedFiles = files;
+            estimatedBytes = bytes;
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void scanned(final int files) {
+        scannedFiles.addAndGet(files);
+    }
+
+    /**
+     * @param bytes size of files that have been deployed, skipped or filtered out
+     */
+    void completed(final long bytes) {
+        completedBytes.addAndGet(bytes);
+    }
+
+    String getProgress() {
+        long elapsedNanos = nanoClock.getAsLong() - startNanos;
+        long deployedBytes = summary.getDeployedBytes();
+        long files = estimatedFiles;
+        long bytes = estimatedBytes;
+        StringBuilder progress = new StringBuilder(String.format("progress: %d%s file(s) scanned, "
+                        + "%d artifact(s) deployed, %s at %s/s, %d not deployed, %d failed",
+                scannedFiles.get(), files >= 0 ? " of " + files : "", summary.getDeployedCount(),
+                formatBytes(deployedBytes), formatBytes((long) (deployedBytes / Math.max(elapsedNanos / 1e9, 0.001))),
+                summary.getFilteredCount() + summary.getSkippedCount(), summary.getFailedCount()));
+        if (bytes >= 0) {
+            long done = Math.min(completedBytes.get(), bytes);
+            progress.append(String.format(", %d%% of %s", bytes == 0 ? 100 : done * 100 / bytes,
+                    formatBytes(bytes)));
+            if (done > 0) {
+                long remainingNanos = (long) ((double) (bytes - done) / done * elapsedNanos);
+                progress.append(", ETA ").append(formatDuration(remainingNanos));
+            }
+        }
+        return progress.toString();
+    }
+
+    static String formatBytes(final long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        String[] units = {"KiB", "MiB", "GiB", "TiB"};
+        double value = bytes;
+        int unit = -1;
+        while (value >= 1024 && unit < units.length - 1) {
+            value /= 1024;
+            unit++;
+        }
+        return String.format("%.1f %s", value, units[unit]);
+    }
+
+    static String formatDuration(final long nanos) {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+        return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    /**
+     * Works out how many files and bytes the deployment covers and hands them to
+     * {@link ProgressReporter#estimated(long, long)}.
+     */
+    @FunctionalInterface
+    interface SizeEstimate {
+        void estimate(ProgressReporter progress) throws IOException;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.AuthenticationContext;
+import org.eclipse.aether.repository.RemoteRepository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * HTTP requests against the target repository for the things the artifact deployer has no API for, like asking
+ * whether a file is already there or uploading a bundle.  Requests are asynchronous so that the checks for all the
+ * files of a version are in flight at the same time.  Credentials are looked up through the repository session, the
+ * same way the deployer finds them.  When a throttle is given every request waits for it like the deployer's do.
+ * The client keeps its connections alive between requests, with the timeouts and HTTP version of the transport
+ * settings when there are any.
+ */
+final class RemoteRepositoryClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final HttpClient httpClient;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final String baseUrl;
+    private final String authorization;
+    private final DeploymentThrottle throttle;
+
+    RemoteRepositoryClient(final ArtifactRepository artifactRepository, final RepositorySystemSession session) {
+        this(artifactRepository, session, null);
+    }
+
+    RemoteRepositoryClient(final ArtifactRepository artifactRepository, final RepositorySystemSession session,
+                           final DeploymentThrottle throttle) {
+        this(artifactRepository, session, throttle, null);
+    }
+
+    /**
+     * @param transportSettings null for the default timeouts and HTTP version
+     */
+    RemoteRepositoryClient(final ArtifactRepository artifactRepository, final RepositorySystemSession session,
+                           final DeploymentThrottle throttle, final TransportSettings transportSettings) {
+        notNull(artifactRepository, "artifactRepository is null");
+        isTrue("http".equals(artifactRepository.getProtocol()) || "https".equals(artifactRepository.getProtocol()),
+                "%s is not an http or https repository", artifactRepository.getUrl());
+        this.baseUrl = StringUtils.appendIfMissing(artifactRepository.getUrl(), "/");
+        this.authorization = getAuthorization(artifactRepository, session);
+        this.throttle = throttle;
+        this.connectTimeout = transportSettings != null ? transportSettings.getConnectTimeout(TIMEOUT) : TIMEOUT;
+        this.requestTimeout = transportSettings != null ? transportSettings.getRequestTimeout(TIMEOUT) : TIMEOUT;
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (transportSettings != null) {
+            builder.version(transportSettings.getHttpVersion());
+        }
+        this.httpClient = builder.build();
+    }
+
+    /**
+     * @param path path of the file relative to the repository root
+     * @return true when the repository answers 200, false when it does not or the request fails
+     */
+    CompletableFuture<Boolean> exists(final String path) {
+        HttpRequest request = newRequest(path).method("HEAD", HttpRequest.BodyPublishers.noBody()).build();
+        return send(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, throwable) -> throwable == null && response.statusCode() == 200);
+    }
+
+    /**
+     * @param path path of the file relative to the repository root
+     * @return the content of the file or null when the repository answers 404
+     */
+    CompletableFuture<String> getText(final String path) {
+        HttpRequest request = newRequest(path).GET().build();
+        return send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .thenApply(response -> {
+                    if (response.statusCode() == 200) {
+                        return response.body();
+                    } else if (response.statusCode() == 404) {
+                        return null;
+                    }
+                    throw new CompletionException(new IOException(String.format("GET %s returned %d",
+                            response.uri(), response.statusCode())));
+                });
+    }
+
+    /**
+     * Streams what the writer writes as the body of a POST or PUT, with the credentials of the repository when the
+     * url is on the same scheme, host and port as the repository, so that they never leak to another server.  The
+     * {@link HttpClient} can only stream a body that already exists as a stream or a file, so the request goes
+     * through a chunked {@link HttpURLConnection} and the body is written on the calling thread while it is sent,
+     * without being buffered.  The JDK keeps those connections alive between requests as well.
+     *
+     * @param method POST or PUT
+     * @param url full url of the request, which does not have to be inside the repository
+     * @param headers more request headers, which can replace the content type as well
+     * @throws IOException when the request fails or the response is not a 2xx
+     */
+    void send(final String method, final String url, final String contentType, final Map<String, String> headers,
+              final BodyWriter bodyWriter) throws IOException {
+        if (throttle != null) {
+            try {
+                throttle.acquireRequest();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException(String.format("%s %s was interrupted", method, url));
+            }
+        }
+        HttpURLConnection connection = (HttpURLConnection) URI.create(url).toURL().openConnection();
+        try {
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout((int) connectTimeout.toMillis());
+            connection.setReadTimeout((int) requestTimeout.toMillis());
+            connection.setChunkedStreamingMode(CHUNK_SIZE);
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", contentType);
+            if (authorization != null && isSameOrigin(baseUrl, url)) {
+                connection.setRequestProperty("Authorization", authorization);
+            }
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                bodyWriter.write(outputStream);
+            }
+            int status = connection.getResponseCode();
+            InputStream responseBody = status >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            String response = responseBody != null
+                    ? new String(responseBody.readAllBytes(), StandardCharsets.UTF_8).trim() : "";
+            if (status < 200 || status >= 300) {
+                throw new IOException(String.format("%s %s returned %d %s", method, url, status, response));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * @return whether both urls have the same scheme, host and port
+     */
+    static boolean isSameOrigin(final String url, final String otherUrl) {
+        URI uri = URI.create(url);
+        URI otherUri = URI.create(otherUrl);
+        return StringUtils.equalsIgnoreCase(uri.getScheme(), otherUri.getScheme())
+                && StringUtils.equalsIgnoreCase(uri.getHost(), otherUri.getHost())
+                && getPort(uri) == getPort(otherUri);
+    }
+
+    private static int getPort(final URI uri) {
+        if (uri.getPort() != -1) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+    }
+
+    /**
+     * Writes the body of a request.
+     */
+    @FunctionalInterface
+    interface BodyWriter {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    private <T> CompletableFuture<HttpResponse<T>> send(final HttpRequest request,
+                                                        final HttpResponse.BodyHandler<T> bodyHandler) {
+        if (throttle != null) {
+            try {
+                throttle.acquireRequest();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableFuture.failedFuture(new InterruptedIOException(
+                        String.format("%s %s was interrupted", request.method(), request.uri())));
+            }
+        }
+        return httpClient.sendAsync(request, bodyHandler);
+    }
+
+    private HttpRequest.Builder newRequest(final String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + StringUtils.removeStart(path, "/")))
+                .timeout(requestTimeout);
+        if (authorization != null) {
+            builder.header("Authorization", authorization);
+        }
+        return builder;
+    }
+
+    private static String getAuthorization(final ArtifactRepository artifactRepository,
+                                           final RepositorySystemSession session) {
+        if (session == null || session.getAuthenticationSelector() == null) {
+            return null;
+        }
+        RemoteRepository remoteRepository = new RemoteRepository.Builder(artifactRepository.getId(), "default",
+                artifactRepository.getUrl()).build();
+        Authentication authentication = session.getAuthenticationSelector().getAuthentication(remoteRepository);
+        if (authentication == null) {
+            return null;
+        }
+        remoteRepository = new RemoteRepository.Builder(remoteRepository).setAuthentication(authentication).build();
+        try (AuthenticationContext context = AuthenticationContext.forRepository(session, remoteRepository)) {
+            String username = context != null ? context.get(AuthenticationContext.USERNAME) : null;
+            if (username == null) {
+                return null;
+            }
+            String password = Objects.toString(context.get(AuthenticationContext.PASSWORD), "");
+            return "Basic " + Base64.getEncoder().encodeToString((username + ":" + password)
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Decides which files of a release version still have to be uploaded by asking the remote repository about all
+ * of them at once.  Snapshots always have to be uploaded because the remote file names carry a timestamp.
+ */
+final class RemoteSync {
+
+    private final SyncMode syncMode;
+    private final RemoteRepositoryClient client;
+    private final ArtifactRepository artifactRepository;
+    private final DeploymentSummary summary;
+    private final Log log;
+
+    RemoteSync(final SyncMode syncMode, final RemoteRepositoryClient client,
+               final ArtifactRepository artifactRepository, final DeploymentSummary summary, final Log log) {
+        notNull(syncMode, "syncMode is null");
+        isTrue(!SyncMode.NONE.equals(syncMode), "syncMode NONE does not talk to the remote repository");
+        this.syncMode = syncMode;
+        this.client = notNull(client, "client is null");
+        this.artifactRepository = notNull(artifactRepository, "artifactRepository is null");
+        this.summary = notNull(summary, "summary is null");
+        this.log = notNull(log, "log is null");
+    }
+
+    /**
+     * @return the artifacts of the version that are not in the remote repository in the same form
+     */
+    List<Artifact> filter(final List<Artifact> artifacts) {
+        if (ArtifactUtils.isSnapshot(artifacts.get(0).getVersion())) {
+            return artifacts;
+        }
+        return SyncMode.CHECKSUM.equals(syncMode) ? removeIdentical(artifacts) : removeExisting(artifacts);
+    }
+
+    private List<Artifact> removeExisting(final List<Artifact> artifacts) {
+        List<CompletableFuture<Boolean>> existenceChecks = new ArrayList<>(artifacts.size());
+        for (Artifact artifact : artifacts) {
+            existenceChecks.add(client.exists(artifactRepository.pathOf(artifact)));
+        }
+        List<Artifact> missingArtifacts = new ArrayList<>(artifacts.size());
+        for (int i = 0; i < artifacts.size(); i++) {
+            Artifact artifact = artifacts.get(i);
+            if (existenceChecks.get(i).join()) {
+                log.debug(String.format("artifact %s already exists in repo and will not be deployed", artifact));
+                summary.alreadyExists(artifact);
+            } else {
+                missingArtifacts.add(artifact);
+            }
+        }
+        return missingArtifacts;
+    }
+
+    private List<Artifact> removeIdentical(final List<Artifact> artifacts) {
+        List<CompletableFuture<String>> remoteChecksums = new ArrayList<>(artifacts.size());
+        for (Artifact artifact : artifacts) {
+            remoteChecksums.add(client.getText(artifactRepository.pathOf(artifact) + "." + Checksums.SHA1)
+                    .thenApply(Checksums::parse));
+        }
+        List<Artifact> changedArtifacts = new ArrayList<>(artifacts.size());
+        for (int i = 0; i < artifacts.size(); i++) {
+            Artifact artifact = artifacts.get(i);
+            String remoteChecksum;
+            try {
+                remoteChecksum = remoteChecksums.get(i).join();
+            } catch (RuntimeException e) {
+                log.debug(String.format("unable to compare artifact %s with the remote repository because %s",
+                        artifact, e.getMessage()));
+                remoteChecksum = null;
+            }
+            if (remoteChecksum == null) {
+                summary.checksumMissing(artifact);
+                changedArtifacts.add(artifact);
+            } else if (remoteChecksum.equals(getLocalChecksum(artifact))) {
+                log.debug(String.format("artifact %s is identical in repo and will not be deployed", artifact));
+                summary.checksumIdentical(artifact);
+            } else {
+                log.debug(String.format("artifact %s differs from the one in repo and will be deployed", artifact));
+                summary.checksumChanged(artifact);
+                changedArtifacts.add(artifact);
+            }
+        }
+        return changedArtifacts;
+    }
+
+    private String getLocalChecksum(final Artifact artifact) {
+        try {
+            //a local .sha1 file may be stale, so only the file itself tells whether it is in the repo already
+            return Checksums.sha1(artifact.getFile());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
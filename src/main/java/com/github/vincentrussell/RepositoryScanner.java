@@ -0,0 +1,274 @@
+package com.github.vincentrussell;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Walks a maven2 style repository and hands the files of each directory to a consumer as soon as that directory
+ * has been completely visited.  Only the files of the directories on the current walk path are held in memory,
+ * so deployment can start with the first artifact version found regardless of the size of the repository.  With
+ * a {@link ScanIndex} the directories that have not changed since they were deployed are listed but not handed to
+ * the consumer, and the directories that are handed to it are registered with the index.  With the state of a
+ * {@link PathFilter} the subtrees that cannot pass the filter are skipped without being listed and only the files
+ * of included directories are handed to the consumer.  With a {@link Shard} the version directories of other shards
+ * are skipped as well.
+ * <p>
+ * With a parallelism above one the directories are listed by a fork join pool, one task per directory, which
+ * keeps that many directory listings and file attribute reads in flight on file systems where each of them is a
+ * network round trip.  The consumer then receives the same directories with the same files, but from several
+ * threads at once and in no particular order.
+ * <p>
+ * The scanner measures the time it spends walking, which leaves out the time spent in the consumer.  With a
+ * parallelism above one it is summed over the threads of the pool.
+ */
+final class RepositoryScanner {
+
+    private final Path repositoryDirectory;
+    private final Path startDirectory;
+    private final ScanIndex scanIndex;
+    private final PathFilter.State startState;
+    private final Shard shard;
+    private final int parallelism;
+    private final AtomicLong walkNanos = new AtomicLong();
+
+    RepositoryScanner(final File startDirectory) {
+        this(startDirectory, null, null, 1);
+    }
+
+    /**
+     * @param scanIndex null to visit every directory
+     * @param startState state of the start directory in the path filter or null to accept every directory
+     * @param parallelism number of directories listed at the same time
+     */
+    RepositoryScanner(final File startDirectory, final ScanIndex scanIndex, final PathFilter.State startState,
+                      final int parallelism) {
+        this(startDirectory, startDirectory, scanIndex, startState, null, parallelism);
+    }
+
+    /**
+     * @param repositoryDirectory the repository directory the start directory is in, which the shard of a directory
+     *                            is derived from
+     * @param shard null to visit the directories of every shard
+     */
+    RepositoryScanner(final File repositoryDirectory, final File startDirectory, final ScanIndex scanIndex,
+                      final PathFilter.State startState, final Shard shard, final int parallelism) {
+        notNull(repositoryDirectory, "repositoryDirectory is null");
+        notNull(startDirectory, "startDirectory is null");
+        isTrue(parallelism > 0, "parallelism must be greater than 0 but was %d", parallelism);
+        this.repositoryDirectory = repositoryDirectory.toPath();
+        this.startDirectory = startDirectory.toPath();
+        this.scanIndex = scanIndex;
+        this.startState = startState;
+        this.shard = shard;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Walk the repository, stopping early when the consumer returns false.
+     */
+    void scan(final DirectoryConsumer consumer) throws IOException {
+        if (parallelism > 1) {
+            scanInParallel(consumer);
+            return;
+        }
+        final long start = System.nanoTime();
+        final long[] consumerNanos = new long[1];
+        final Deque<OpenDirectory> openDirectories = new ArrayDeque<>();
+        Files.walkFileTree(startDirectory, new SimpleFileVisitor<>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                PathFilter.State state = startState;
+                if (!openDirectories.isEmpty()) {
+                    openDirectories.peek().leaf = false;
+                    if (state != null) {
+                        state = openDirectories.peek().state.getChild(dir.getFileName().toString());
+                    }
+                }
+                if (isSkipped(dir, state)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                openDirectories.push(new OpenDirectory(attrs.lastModifiedTime().toMillis(), state));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && !openDirectories.isEmpty()) {
+                    openDirectories.peek().add(file, attrs);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(final Path dir, final IOException exc) throws IOException {
+                if (exc != null) {
+                    throw exc;
+                }
+                OpenDirectory directory = openDirectories.pop();
+                long acceptStart = System.nanoTime();
+                boolean accepted = accept(consumer, dir, directory);
+                consumerNanos[0] += System.nanoTime() - acceptStart;
+                return accepted ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+            }
+        });
+        walkNanos.addAndGet(System.nanoTime() - start - consumerNanos[0]);
+    }
+
+    /**
+     * @return the time spent walking by the scans so far, without the time spent in the consumer
+     */
+    long getWalkNanos() {
+        return walkNanos.get();
+    }
+
+    private void scanInParallel(final DirectoryConsumer consumer) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(startDirectory, BasicFileAttributes.class);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new DirectoryTask(startDirectory, attrs, startState, consumer, new AtomicBoolean()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return whether the directory and everything below it is left out of the walk
+     */
+    private boolean isSkipped(final Path dir, final PathFilter.State state) {
+        return (state != null && state.isPruned())
+                || (shard != null && shard.isPruned(repositoryDirectory, dir));
+    }
+
+    /**
+     * @return false to stop the walk
+     */
+    private boolean accept(final DirectoryConsumer consumer, final Path dir, final OpenDirectory directory)
+            throws IOException {
+        if (directory.files.isEmpty()) {
+            return true;
+        }
+        if (scanIndex != null && directory.leaf) {
+            ScanIndex.Fingerprint fingerprint = directory.getFingerprint();
+            if (scanIndex.skipUnchanged(dir, fingerprint)) {
+                return true;
+            }
+            scanIndex.scanned(dir, fingerprint);
+        }
+        return consumer.accept(dir.toFile(), directory.files);
+    }
+
+    private final class DirectoryTask extends RecursiveAction {
+        private final Path dir;
+        private final BasicFileAttributes attrs;
+        private final PathFilter.State state;
+        private final DirectoryConsumer consumer;
+        private final AtomicBoolean stopped;
+
+        private DirectoryTask(final Path dir, final BasicFileAttributes attrs, final PathFilter.State state,
+                              final DirectoryConsumer consumer, final AtomicBoolean stopped) {
+            this.dir = dir;
+            this.attrs = attrs;
+            this.state = state;
+            this.consumer = consumer;
+            this.stopped = stopped;
+        }
+
+        @Override
+        protected void compute() {
+            long start = System.nanoTime();
+            if (stopped.get() || isSkipped(dir, state)) {
+                walkNanos.addAndGet(System.nanoTime() - start);
+                return;
+            }
+            OpenDirectory directory = new OpenDirectory(attrs.lastModifiedTime().toMillis(), state);
+            List<DirectoryTask> subdirectories = new ArrayList<>();
+            try {
+                try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                    for (Path entry : entries) {
+                        BasicFileAttributes entryAttrs = Files.readAttributes(entry, BasicFileAttributes.class,
+                                LinkOption.NOFOLLOW_LINKS);
+                        if (entryAttrs.isDirectory()) {
+                            directory.leaf = false;
+                            subdirectories.add(new DirectoryTask(entry, entryAttrs,
+                                    state != null ? state.getChild(entry.getFileName().toString()) : null,
+                                    consumer, stopped));
+                        } else if (entryAttrs.isRegularFile()) {
+                            directory.add(entry, entryAttrs);
+                        }
+                    }
+                }
+                walkNanos.addAndGet(System.nanoTime() - start);
+                if (!accept(consumer, dir, directory)) {
+                    stopped.set(true);
+                    return;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            invokeAll(subdirectories);
+        }
+    }
+
+    private static final class OpenDirectory {
+        private final List<File> files = new ArrayList<>();
+        private final long lastModified;
+        private final PathFilter.State state;
+        private boolean leaf = true;
+        private long size;
+        private long newestFileModified;
+
+        private OpenDirectory(final long lastModified, final PathFilter.State state) {
+            this.lastModified = lastModified;
+            this.state = state;
+        }
+
+        private void add(final Path file, final BasicFileAttributes attrs) {
+            size += attrs.size();
+            newestFileModified = Math.max(newestFileModified, attrs.lastModifiedTime().toMillis());
+            if (isIncluded()) {
+                files.add(file.toFile());
+            }
+        }
+
+        private ScanIndex.Fingerprint getFingerprint() {
+            return new ScanIndex.Fingerprint(lastModified, size, newestFileModified);
+        }
+
+        private boolean isIncluded() {
+            return state == null || state.isIncluded();
+        }
+    }
+
+    /**
+     * Receives the regular files directly inside one directory of the repository.
+     */
+    @FunctionalInterface
+    interface DirectoryConsumer {
+        /**
+         * @return false to stop the walk
+         */
+        boolean accept(File directory, List<File> files) throws IOException;
+    }
+}
@@ -0,0 +1,139 @@
+package com.github.vincentrussell;
+
+import org.apache.http.NoHttpResponseException;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.conn.ConnectTimeoutException;
+
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * How often and after how long a failed deployment is tried again.  The delay doubles with every attempt up to
+ * the maximum and a random part of it is used ("full jitter"), so that deployments which failed together because
+ * of the same outage do not all come back at the same moment.
+ * <p>
+ * It also classifies failures for the retries and for the adaptive concurrency limit alike, by the HTTP status the
+ * repository answered with.  The status is read from the exception of the http transport and otherwise from the
+ * message the resolver, wagon or {@link RemoteRepositoryClient} put it in.
+ */
+final class RetryPolicy {
+    static final int NO_STATUS = -1;
+
+    //"status code: 502" of the resolver, "Return code is: 502" of older wagons, "Transfer failed for <url> 502" of
+    //newer ones and "returned 502" of the RemoteRepositoryClient
+    private static final Pattern STATUS = Pattern.compile(
+            "(?:status code: |Return code is: |Transfer failed for \\S+ |returned )(\\d{3})\\b");
+    private static final Pattern CONNECTION_FAILURE = Pattern.compile(
+            "timed out|Connection reset|Broken pipe|failed to respond");
+
+    private final int retries;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    RetryPolicy(final int retries, final long initialBackoffMillis, final long maxBackoffMillis) {
+        isTrue(retries >= 0, "retries must not be negative but was %d", retries);
+        isTrue(initialBackoffMillis >= 0, "retryBackoff must not be negative but was %d", initialBackoffMillis);
+        isTrue(maxBackoffMillis >= initialBackoffMillis,
+                "maxRetryBackoff must be at least retryBackoff (%d) but was %d", initialBackoffMillis,
+                maxBackoffMillis);
+        this.retries = retries;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+    }
+
+    /**
+     * @return whether the failure may go away when the request is repeated: the repository answered with a 5xx or
+     * 429 status, did not answer in time or dropped the connection.  Anything else, like a rejected password or a
+     * missing repository, fails the same way on every attempt.
+     */
+    static boolean isTransient(final Throwable e) {
+        int status = getStatusCode(e);
+        if (status != NO_STATUS) {
+            return status >= 500 || status == 429;
+        }
+        return isTimeout(e) || isConnectionFailure(e);
+    }
+
+    /**
+     * @return whether the failure says the repository is overloaded and fewer requests should be in flight: it
+     * answered with 429, with 502, 503 or 504 of a proxy in front of it, or did not answer in time
+     */
+    static boolean isOverloaded(final Throwable e) {
+        int status = getStatusCode(e);
+        if (status != NO_STATUS) {
+            return status == 429 || status == 502 || status == 503 || status == 504;
+        }
+        return isTimeout(e);
+    }
+
+    /**
+     * @return the HTTP status of the first failure in the causes that has one, or {@link #NO_STATUS}
+     */
+    static int getStatusCode(final Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpResponseException) {
+                return ((HttpResponseException) cause).getStatusCode();
+            }
+            if (cause.getMessage() != null) {
+                Matcher matcher = STATUS.matcher(cause.getMessage());
+                if (matcher.find()) {
+                    return Integer.parseInt(matcher.group(1));
+                }
+            }
+        }
+        return NO_STATUS;
+    }
+
+    private static boolean isTimeout(final Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException
+                    || cause instanceof ConnectTimeoutException
+                    || (cause.getMessage() != null && cause.getMessage().contains("timed out"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isConnectionFailure(final Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketException || cause instanceof NoHttpResponseException
+                    || (cause.getMessage() != null && CONNECTION_FAILURE.matcher(cause.getMessage()).find())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int getRetries() {
+        return retries;
+    }
+
+    /**
+     * @param failedAttempts number of attempts that have failed so far, at least 1
+     * @return true when another attempt should be made
+     */
+    boolean shouldRetry(final int failedAttempts) {
+        return failedAttempts <= retries;
+    }
+
+    /**
+     * @param failedAttempts number of attempts that have failed so far, at least 1
+     * @return milliseconds to wait before the next attempt
+     */
+    long getBackoffMillis(final int failedAttempts) {
+        return ThreadLocalRandom.current().nextLong(getMaxBackoffMillis(failedAttempts) + 1);
+    }
+
+    long getMaxBackoffMillis(final int failedAttempts) {
+        //never shift the backoff far enough to overflow
+        int doublings = Math.min(Math.max(failedAttempts - 1, 0), Long.numberOfLeadingZeros(initialBackoffMillis) - 1);
+        return Math.min(initialBackoffMillis << doublings, maxBackoffMillis);
+    }
+}
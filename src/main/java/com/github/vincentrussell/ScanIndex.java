@@ -0,0 +1,181 @@
+package com.github.vincentrussell;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.apache.commons.lang3.Validate.notEmpty;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Remembers the version directories of earlier runs with a fingerprint of their files and whether they were
+ * deployed to each remote repository, so that a later run can skip the directories that have not changed without
+ * reading or uploading their files.  The fingerprint is the modification time of the directory, which adding,
+ * removing or renaming a file changes, and the total size and newest modification time of its files, which
+ * overwriting a file in place changes.  It is taken from the listing of the directory, so only the directory is
+ * listed again.  A directory counts as unchanged only when it was deployed to every repository of the run, so
+ * adding a repository deploys everything to it.  Only directories without subdirectories are remembered, because
+ * a change below a subdirectory does not show in the fingerprint of its parent.
+ * <p>
+ * The index is a text file with one line per directory and repository, the directory relative to the repository
+ * directory:
+ * <pre>
+ * repositoryUrl&lt;TAB&gt;directory&lt;TAB&gt;lastModified&lt;TAB&gt;size&lt;TAB&gt;newestFileModified&lt;TAB&gt;status
+ * </pre>
+ * and it is replaced as a whole when it is saved.
+ */
+final class ScanIndex {
+
+    enum Status {
+        DEPLOYED,
+        FAILED
+    }
+
+    /**
+     * @param lastModified modification time of the directory
+     * @param size total size of the regular files in the directory
+     * @param newestFileModified newest modification time of the regular files in the directory
+     */
+    record Fingerprint(long lastModified, long size, long newestFileModified) {
+    }
+
+    record Entry(Fingerprint fingerprint, Status status) {
+    }
+
+    private final File indexFile;
+    private final Path repositoryDirectory;
+    private final List<String> repositoryUrls;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, Entry> previousEntries = new HashMap<>();
+    private final Map<String, Entry> scanned = new ConcurrentHashMap<>();
+    private final AtomicLong unchanged = new AtomicLong();
+
+    private ScanIndex(final File indexFile, final Path repositoryDirectory, final List<String> repositoryUrls) {
+        this.indexFile = indexFile;
+        this.repositoryDirectory = repositoryDirectory;
+        this.repositoryUrls = repositoryUrls;
+    }
+
+    /**
+     * @param repositoryUrls the urls of the remote repositories the run deploys to
+     * @return the index in the file or an empty one when the file does not exist yet
+     */
+    static ScanIndex load(final File indexFile, final File repositoryDirectory, final List<String> repositoryUrls)
+            throws IOException {
+        notNull(indexFile, "indexFile is null");
+        notNull(repositoryDirectory, "repositoryDirectory is null");
+        notEmpty(repositoryUrls, "repositoryUrls is empty");
+        ScanIndex index = new ScanIndex(indexFile, repositoryDirectory.toPath().toAbsolutePath(),
+                List.copyOf(repositoryUrls));
+        if (indexFile.exists()) {
+            int lineNumber = 0;
+            for (String line : Files.readAllLines(indexFile.toPath(), StandardCharsets.UTF_8)) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                try {
+                    index.previousEntries.put(fields[0] + '\t' + fields[1], new Entry(new Fingerprint(
+                            Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4])),
+                            Status.valueOf(fields[5])));
+                } catch (RuntimeException e) {
+                    throw new IOException(String.format("line %d of %s is not a valid index entry", lineNumber,
+                            indexFile.getAbsolutePath()), e);
+                }
+            }
+        }
+        index.entries.putAll(index.previousEntries);
+        return index;
+    }
+
+    /**
+     * @return whether the directory was deployed to every repository and has not been modified since, in which
+     * case it is counted as unchanged
+     */
+    boolean skipUnchanged(final Path directory, final Fingerprint fingerprint) {
+        if (isUnchanged(directory, fingerprint)) {
+            unchanged.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return whether the directory was deployed to every repository by an earlier run and has not been modified
+     * since, without counting it
+     */
+    boolean isUnchanged(final Path directory, final Fingerprint fingerprint) {
+        String directoryKey = getKey(directory);
+        for (String repositoryUrl : repositoryUrls) {
+            Entry entry = previousEntries.get(repositoryUrl + '\t' + directoryKey);
+            if (entry == null || !Status.DEPLOYED.equals(entry.status()) || !entry.fingerprint().equals(fingerprint)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long getUnchangedCount() {
+        return unchanged.get();
+    }
+
+    /**
+     * Called by the scanner for every directory with files and without subdirectories.
+     */
+    void scanned(final Path directory, final Fingerprint fingerprint) {
+        scanned.put(getKey(directory), new Entry(fingerprint, null));
+    }
+
+    /**
+     * Records the outcome of the deployment of a directory that was {@link #scanned(Path, Fingerprint)} for every
+     * repository.
+     */
+    void completed(final Path directory, final Status status) {
+        String directoryKey = getKey(directory);
+        Entry entry = scanned.remove(directoryKey);
+        if (entry != null) {
+            for (String repositoryUrl : repositoryUrls) {
+                entries.put(repositoryUrl + '\t' + directoryKey, new Entry(entry.fingerprint(), status));
+            }
+        }
+    }
+
+    Entry getEntry(final Path directory, final String repositoryUrl) {
+        return entries.get(repositoryUrl + '\t' + getKey(directory));
+    }
+
+    /**
+     * Writes the index to a temporary file first so that a crash never leaves a half written index behind.
+     */
+    void save() throws IOException {
+        File parent = indexFile.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            Files.createDirectories(parent.toPath());
+        }
+        File temporaryFile = new File(indexFile.getPath() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporaryFile.toPath(), StandardCharsets.UTF_8)) {
+            writer.write("# repositoryUrl\tdirectory\tlastModified\tsize\tnewestFileModified\tstatus\n");
+            for (Map.Entry<String, Entry> entry : new TreeMap<>(entries).entrySet()) {
+                Fingerprint fingerprint = entry.getValue().fingerprint();
+                writer.write(String.format("%s\t%d\t%d\t%d\t%s\n", entry.getKey(), fingerprint.lastModified(),
+                        fingerprint.size(), fingerprint.newestFileModified(), entry.getValue().status()));
+            }
+        }
+        Files.move(temporaryFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private String getKey(final Path directory) {
+        return repositoryDirectory.relativize(directory.toAbsolutePath()).toString().replace(File.separatorChar, '/');
+    }
+}
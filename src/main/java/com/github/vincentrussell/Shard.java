@@ -0,0 +1,106 @@
+package com.github.vincentrussell;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.CRC32;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * The part of a bulk import that one of several machines deploys, so that they can split the same repository
+ * without talking to each other.  Artifacts are assigned to a shard by a hash of groupId:artifactId that does not
+ * depend on the JVM, the machine or the order the repository is walked in.  All the versions of an artifact share
+ * its maven-metadata.xml and always end up in the same shard, so no two machines update the same metadata.
+ * <p>
+ * The groupId and artifactId of the files of a version directory follow from its path, so a whole directory is
+ * assigned to a shard before its files are parsed, and the version directories of other shards are left out of the
+ * walk without being listed.
+ */
+final class Shard {
+
+    private final int index;
+    private final int count;
+
+    /**
+     * @param index the shard to deploy, from 0 to count - 1
+     * @param count the number of shards the import is split into
+     */
+    Shard(final int index, final int count) {
+        isTrue(count > 0, "shardCount must be greater than 0 but was %d", count);
+        isTrue(index >= 0 && index < count, "shardIndex must be from 0 to %d but was %d", count - 1, index);
+        this.index = index;
+        this.count = count;
+    }
+
+    boolean contains(final String groupId, final String artifactId) {
+        return count == 1 || getIndex(groupId, artifactId, count) == index;
+    }
+
+    /**
+     * @return whether the files of the directory may belong to the shard, decided from its path the same way the
+     * {@link ArtifactPathParser} derives their groupId and artifactId
+     */
+    boolean containsDirectory(final Path repositoryDirectory, final Path directory) {
+        if (count == 1) {
+            return true;
+        }
+        String[] coordinates = getCoordinates(repositoryDirectory, directory);
+        return coordinates == null || contains(coordinates[0], coordinates[1]);
+    }
+
+    /**
+     * The path alone does not say where the groupId ends, so a directory only counts as a version directory when it
+     * holds artifactId-version.pom.  That takes one file check, which is only made for the directories whose path
+     * puts them into another shard.
+     *
+     * @return whether the directory is a version directory of another shard that can be skipped without being listed
+     */
+    boolean isPruned(final Path repositoryDirectory, final Path directory) {
+        if (count == 1) {
+            return false;
+        }
+        String[] coordinates = getCoordinates(repositoryDirectory, directory);
+        return coordinates != null && !contains(coordinates[0], coordinates[1])
+                && Files.isRegularFile(directory.resolve(coordinates[1] + "-" + coordinates[2] + ".pom"));
+    }
+
+    /**
+     * @return the groupId, artifactId and version of the directory if it were a version directory, or null when it
+     * is not deep enough to be one
+     */
+    private static String[] getCoordinates(final Path repositoryDirectory, final Path directory) {
+        Path relativePath = repositoryDirectory.toAbsolutePath().normalize()
+                .relativize(directory.toAbsolutePath().normalize());
+        int nameCount = relativePath.getNameCount();
+        if (nameCount < 3 || relativePath.startsWith("..")) {
+            return null;
+        }
+        StringBuilder groupId = new StringBuilder();
+        for (int i = 0; i < nameCount - 2; i++) {
+            if (groupId.length() > 0) {
+                groupId.append('.');
+            }
+            groupId.append(relativePath.getName(i));
+        }
+        return new String[] {groupId.toString(), relativePath.getName(nameCount - 2).toString(),
+                relativePath.getName(nameCount - 1).toString()};
+    }
+
+    /**
+     * @return the shard of the artifact, from a CRC32 of its groupId:artifactId
+     */
+    static int getIndex(final String groupId, final String artifactId, final int count) {
+        CRC32 crc = new CRC32();
+        crc.update((groupId + ":" + artifactId).getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % count);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    int getCount() {
+        return count;
+    }
+}
@@ -0,0 +1,243 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystemSession;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+import static org.apache.commons.lang3.Validate.notNull;
+
+/**
+ * Uploads checksums the deployer does not have to calculate.  The deployer always calculates the checksums of what
+ * it uploads, by reading the whole file through a heap buffer before the upload reads it again, so the files whose
+ * checksums are known are deployed together with checksum files through a repository session that has checksum
+ * calculation switched off.  The .sha1 and .md5 files found next to a release file are only uploaded as its
+ * checksums when they match it, which is checked by hashing the file in one pass over the memory mapped file
+ * instead of the deployer's heap buffer.  Maven only warns about wrong checksums by default, so local repositories
+ * do hold stale ones, and a file whose sidecars do not match is deployed with calculated checksums and counted in
+ * the summary.  Release files of at least the large file size get theirs calculated here instead, for every
+ * configured algorithm in a single pass over the memory mapped file, and written to a temporary directory.  Poms
+ * and the other files keep the regular session, which also makes sure the maven-metadata.xml uploaded last for the
+ * version gets its checksums.  When a version is deployed to several repositories its large files are only hashed
+ * for the first of them.
+ */
+final class SidecarChecksums implements Closeable {
+
+    private static final String[] SIDECAR_EXTENSIONS = {Checksums.SHA1, Checksums.MD5};
+
+    private final ProjectBuildingRequest projectBuildingRequest;
+    private final ProjectBuildingRequest withoutChecksumsRequest;
+    private final ArtifactPathParser artifactPathParser;
+    private final boolean reuseSidecars;
+    private final long largeFileThreshold;
+    private final Set<String> algorithms;
+    private final File checksumDirectory;
+    private final DeploymentSummary summary;
+    private final Log log;
+
+    private SidecarChecksums(final ProjectBuildingRequest projectBuildingRequest,
+                             final ProjectBuildingRequest withoutChecksumsRequest,
+                             final ArtifactPathParser artifactPathParser, final boolean reuseSidecars,
+                             final long largeFileThreshold, final Set<String> algorithms,
+                             final File checksumDirectory, final DeploymentSummary summary, final Log log) {
+        this.projectBuildingRequest = projectBuildingRequest;
+        this.withoutChecksumsRequest = withoutChecksumsRequest;
+        this.artifactPathParser = artifactPathParser;
+        this.reuseSidecars = reuseSidecars;
+        this.largeFileThreshold = largeFileThreshold;
+        this.algorithms = algorithms;
+        this.checksumDirectory = checksumDirectory;
+        this.summary = summary;
+        this.log = log;
+    }
+
+    /**
+     * @return whether the repository is configured to use exactly the sha1 and md5 checksums that sidecars can
+     * provide
+     */
+    static boolean canReuseSidecars(final RepositorySystemSession session,
+                                    final ArtifactRepository artifactRepository) {
+        return Checksums.DEFAULT_ALGORITHMS.equals(Checksums.getConfiguredAlgorithms(session,
+                artifactRepository.getId()));
+    }
+
+    /**
+     * @param reuseSidecars whether to upload matching .sha1 and .md5 files as the checksums of their files, which
+     * requires {@link #canReuseSidecars(RepositorySystemSession, ArtifactRepository)}
+     * @param largeFileThreshold size from which the checksums of a file are calculated here or 0 to leave them to
+     * the deployer
+     */
+    static SidecarChecksums create(final ProjectBuildingRequest projectBuildingRequest,
+                                   final ArtifactRepository artifactRepository,
+                                   final ArtifactPathParser artifactPathParser, final boolean reuseSidecars,
+                                   final long largeFileThreshold, final DeploymentSummary summary,
+                                   final Log log) throws IOException {
+        notNull(projectBuildingRequest, "projectBuildingRequest is null");
+        notNull(artifactRepository, "artifactRepository is null");
+        notNull(artifactPathParser, "artifactPathParser is null");
+        notNull(summary, "summary is null");
+        notNull(log, "log is null");
+        isTrue(largeFileThreshold >= 0, "largeFileThreshold must be 0 or more but was %d", largeFileThreshold);
+        RepositorySystemSession session = projectBuildingRequest.getRepositorySession();
+        isTrue(!reuseSidecars || canReuseSidecars(session, artifactRepository),
+                "repository %s uses checksum algorithms other than sha1 and md5", artifactRepository.getId());
+        Set<String> algorithms = Checksums.getConfiguredAlgorithms(session, artifactRepository.getId());
+        DefaultRepositorySystemSession withoutChecksums = new DefaultRepositorySystemSession(session);
+        withoutChecksums.setConfigProperty(Checksums.CHECKSUM_ALGORITHMS + "." + artifactRepository.getId(), "");
+        withoutChecksums.setConfigProperty(Checksums.CHECKSUM_ALGORITHMS, "");
+        ProjectBuildingRequest withoutChecksumsRequest = new DefaultProjectBuildingRequest(projectBuildingRequest)
+                .setRepositorySession(withoutChecksums);
+        File checksumDirectory = largeFileThreshold > 0
+                ? Files.createTempDirectory("bulk-deploy-checksums").toFile() : null;
+        return new SidecarChecksums(projectBuildingRequest, withoutChecksumsRequest, artifactPathParser,
+                reuseSidecars, largeFileThreshold, algorithms, checksumDirectory, summary, log);
+    }
+
+    /**
+     * @param calculatedChecksums checksums calculated for other target repositories by file, which the checksums
+     * calculated here are added to
+     * @return the deployments for the files of one version, the one with calculated checksums last
+     */
+    List<Deployment> split(final List<Artifact> artifacts, final Map<File, Map<String, String>> calculatedChecksums)
+            throws IOException {
+        if (ArtifactUtils.isSnapshot(artifacts.get(0).getVersion())) {
+            return List.of(new Deployment(projectBuildingRequest, artifacts, 0, 0));
+        }
+        List<Artifact> reused = new ArrayList<>();
+        List<Artifact> large = new ArrayList<>();
+        List<Artifact> calculated = new ArrayList<>();
+        for (Artifact artifact : artifacts) {
+            if ("pom".equals(artifact.getType())) {
+                calculated.add(artifact);
+            } else if (reuseSidecars && hasMatchingSidecars(artifact, calculatedChecksums)) {
+                reused.add(artifact);
+            } else if (isLarge(artifact)) {
+                large.add(artifact);
+            } else {
+                calculated.add(artifact);
+            }
+        }
+        if (calculated.isEmpty()) {
+            //something has to be deployed with the regular session for the metadata to get its checksums
+            Artifact smallest = Stream.concat(reused.stream(), large.stream())
+                    .min(Comparator.comparingLong(a -> a.getFile().length())).get();
+            reused.remove(smallest);
+            large.remove(smallest);
+            calculated.add(smallest);
+        }
+        List<Deployment> deployments = new ArrayList<>(2);
+        if (!reused.isEmpty() || !large.isEmpty()) {
+            List<Artifact> withChecksums = new ArrayList<>();
+            for (Artifact artifact : reused) {
+                withChecksums.add(artifact);
+                for (String extension : SIDECAR_EXTENSIONS) {
+                    withChecksums.add(toChecksumArtifact(artifact, extension,
+                            Checksums.getSidecar(artifact.getFile(), extension)));
+                }
+            }
+            for (Artifact artifact : large) {
+                withChecksums.add(artifact);
+                for (Map.Entry<String, String> checksum
+                        : calculate(artifact.getFile(), calculatedChecksums).entrySet()) {
+                    String extension = Checksums.getExtension(checksum.getKey());
+                    File checksumFile = Files.createTempFile(checksumDirectory.toPath(), artifact.getFile().getName(),
+                            "." + extension).toFile();
+                    Files.writeString(checksumFile.toPath(), checksum.getValue(), StandardCharsets.UTF_8);
+                    withChecksums.add(toChecksumArtifact(artifact, extension, checksumFile));
+                }
+            }
+            deployments.add(new Deployment(withoutChecksumsRequest, withChecksums, reused.size(), large.size()));
+        }
+        deployments.add(new Deployment(projectBuildingRequest, calculated, 0, 0));
+        return deployments;
+    }
+
+    /**
+     * Reuses the checksums calculated for another target when they were calculated with the same algorithms.
+     */
+    private Map<String, String> calculate(final File file, final Map<File, Map<String, String>> calculatedChecksums)
+            throws IOException {
+        Map<String, String> checksums = calculatedChecksums.get(file);
+        if (checksums == null || !checksums.keySet().equals(algorithms)) {
+            checksums = Checksums.calculate(file, algorithms);
+            calculatedChecksums.putIfAbsent(file, checksums);
+        }
+        return checksums;
+    }
+
+    private boolean isLarge(final Artifact artifact) {
+        return largeFileThreshold > 0 && artifact.getFile().length() >= largeFileThreshold;
+    }
+
+    /**
+     * The file is only hashed when it has both sidecars, and its checksums are kept for the large file path when
+     * they do not match.
+     */
+    private boolean hasMatchingSidecars(final Artifact artifact,
+                                        final Map<File, Map<String, String>> calculatedChecksums) throws IOException {
+        Map<String, String> sidecars = new LinkedHashMap<>();
+        for (String algorithm : algorithms) {
+            String sidecar = Checksums.readSidecar(artifact.getFile(), Checksums.getExtension(algorithm));
+            if (sidecar == null) {
+                return false;
+            }
+            sidecars.put(algorithm, sidecar);
+        }
+        if (sidecars.equals(calculate(artifact.getFile(), calculatedChecksums))) {
+            return true;
+        }
+        log.warn(String.format("the checksum files of %s do not match it, its checksums are calculated instead",
+                artifact.getFile().getAbsolutePath()));
+        summary.staleChecksumFile(artifact);
+        return false;
+    }
+
+    private Artifact toChecksumArtifact(final Artifact artifact, final String extension, final File checksumFile) {
+        String type = artifact.getType() + "." + extension;
+        Artifact checksum = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(),
+                artifact.getVersion(), artifact.getScope(), type, artifact.getClassifier(),
+                artifactPathParser.getArtifactHandler(type));
+        checksum.setFile(checksumFile);
+        return checksum;
+    }
+
+    /**
+     * Deletes the checksum files calculated for large files.
+     */
+    @Override
+    public void close() throws IOException {
+        if (checksumDirectory != null) {
+            FileUtils.deleteDirectory(checksumDirectory);
+        }
+    }
+
+    /**
+     * One deploy request for some of the files of a version.
+     *
+     * @param reusedChecksums number of files whose checksums are uploaded from their sidecars
+     * @param calculatedChecksums number of large files whose checksums were calculated before the upload
+     */
+    record Deployment(ProjectBuildingRequest projectBuildingRequest, List<Artifact> artifacts, int reusedChecksums,
+                      int calculatedChecksums) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.vincentrussell;
+
+/**
+ * How the remote repository is consulted before artifacts are uploaded.
+ */
+public enum SyncMode {
+    /**
+     * Upload everything and learn about existing artifacts from failed uploads.
+     */
+    NONE,
+    /**
+     * Skip release files that the remote repository already has, found with HEAD requests.
+     */
+    EXISTENCE,
+    /**
+     * Skip release files whose remote .sha1 matches the local one.  The local checksum is read from the .sha1
+     * file next to the artifact or calculated when there is none.
+     */
+    CHECKSUM
+}
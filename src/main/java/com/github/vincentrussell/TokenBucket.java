@@ -0,0 +1,57 @@
+package com.github.vincentrussell;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Token bucket shared by all deploy threads.  It refills at a fixed rate and holds at most one second worth of
+ * tokens, so short bursts go through at once while the average never exceeds the rate.  A caller that takes more
+ * tokens than are available leaves the bucket in debt and waits until the debt would have been refilled, which
+ * makes callers queue up behind each other instead of racing for the next token.
+ */
+final class TokenBucket {
+
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(final long tokensPerSecond) {
+        this(tokensPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(final long tokensPerSecond, final LongSupplier nanoClock) {
+        isTrue(tokensPerSecond > 0, "tokensPerSecond must be greater than 0 but was %d", tokensPerSecond);
+        this.tokensPerNano = (double) tokensPerSecond / NANOS_PER_SECOND;
+        this.capacity = tokensPerSecond;
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    /**
+     * Takes the tokens and waits as long as the rate requires.
+     */
+    void acquire(final long count) throws InterruptedException {
+        long waitNanos = reserve(count);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    /**
+     * @return nanoseconds the caller has to wait before it may use the tokens it just took
+     */
+    synchronized long reserve(final long count) {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+        tokens -= count;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / tokensPerNano);
+    }
+}
@@ -0,0 +1,159 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.eclipse.aether.ConfigurationProperties;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryCache;
+import org.eclipse.aether.RepositorySystemSession;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+/**
+ * Connection settings for all the requests of a run.  The deployer's http transport keeps its connection pool in
+ * the cache of the repository session, keyed by the pool settings, so every deploy request of the run that uses
+ * the same settings draws keep-alive connections from the same pool instead of opening and handshaking new ones.
+ * Without a cache, as in sessions that were not created by a maven build, every deploy request gets a pool of its
+ * own that is closed with it.  The settings are applied to a copy of the repository session that always has a
+ * cache and reuses connections unless the build configured otherwise.  A cache the copy was given for the run is
+ * closed with its pools by {@link #release(ProjectBuildingRequest)}, while the cache of a build is left to the
+ * build.  The transport speaks HTTP/1.1 only, so HTTP/2 applies to the requests that ask the repository what it
+ * already has.
+ * <p>
+ * The pool is shared by all the repositories of a run and the transport caps it at twice maxConnectionsPerRoute
+ * in total, so deploying to several repositories does not multiply the connections.
+ */
+final class TransportSettings {
+
+    static final String CACHE_STATE = "aether.connector.http.cacheState";
+
+    private final int maxConnectionsPerRoute;
+    private final int connectionMaxTtl;
+    private final int connectTimeout;
+    private final int requestTimeout;
+    private final boolean http2;
+
+    /**
+     * @param maxConnectionsPerRoute pooled connections to the repository host or 0 for the transport default
+     * @param connectionMaxTtl seconds a pooled connection is kept or 0 for the transport default
+     * @param connectTimeout milliseconds to wait for a connection or 0 for the transport default
+     * @param requestTimeout milliseconds to wait for data or 0 for the transport default
+     * @param http2 whether the requests that are not deployments may use HTTP/2
+     */
+    TransportSettings(final int maxConnectionsPerRoute, final int connectionMaxTtl, final int connectTimeout,
+                      final int requestTimeout, final boolean http2) {
+        isTrue(maxConnectionsPerRoute >= 0, "maxConnectionsPerRoute must be 0 or more but was %d",
+                maxConnectionsPerRoute);
+        isTrue(connectionMaxTtl >= 0, "connectionMaxTtl must be 0 or more but was %d", connectionMaxTtl);
+        isTrue(connectTimeout >= 0, "connectTimeout must be 0 or more but was %d", connectTimeout);
+        isTrue(requestTimeout >= 0, "requestTimeout must be 0 or more but was %d", requestTimeout);
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        this.connectionMaxTtl = connectionMaxTtl;
+        this.connectTimeout = connectTimeout;
+        this.requestTimeout = requestTimeout;
+        this.http2 = http2;
+    }
+
+    /**
+     * @return a copy of the request whose repository session carries the settings
+     */
+    ProjectBuildingRequest apply(final ProjectBuildingRequest projectBuildingRequest) {
+        RepositorySystemSession session = projectBuildingRequest.getRepositorySession();
+        DefaultRepositorySystemSession tunedSession = new DefaultRepositorySystemSession(session);
+        if (tunedSession.getCache() == null) {
+            tunedSession.setCache(new RunCache());
+        }
+        setIfAbsent(tunedSession, ConfigurationProperties.HTTP_REUSE_CONNECTIONS, true);
+        setIfAbsent(tunedSession, CACHE_STATE, true);
+        if (maxConnectionsPerRoute > 0) {
+            tunedSession.setConfigProperty(ConfigurationProperties.HTTP_MAX_CONNECTIONS_PER_ROUTE,
+                    maxConnectionsPerRoute);
+        }
+        if (connectionMaxTtl > 0) {
+            tunedSession.setConfigProperty(ConfigurationProperties.HTTP_CONNECTION_MAX_TTL, connectionMaxTtl);
+        }
+        if (connectTimeout > 0) {
+            tunedSession.setConfigProperty(ConfigurationProperties.CONNECT_TIMEOUT, connectTimeout);
+        }
+        if (requestTimeout > 0) {
+            tunedSession.setConfigProperty(ConfigurationProperties.REQUEST_TIMEOUT, requestTimeout);
+        }
+        return new DefaultProjectBuildingRequest(projectBuildingRequest).setRepositorySession(tunedSession);
+    }
+
+    /**
+     * Closes the connection pools of a request returned by {@link #apply(ProjectBuildingRequest)} when it got a
+     * cache for the run, which no one else would close.
+     */
+    static void release(final ProjectBuildingRequest projectBuildingRequest) throws IOException {
+        RepositoryCache cache = projectBuildingRequest.getRepositorySession().getCache();
+        if (cache instanceof RunCache) {
+            ((RunCache) cache).close();
+        }
+    }
+
+    Duration getConnectTimeout(final Duration defaultTimeout) {
+        return connectTimeout > 0 ? Duration.ofMillis(connectTimeout) : defaultTimeout;
+    }
+
+    Duration getRequestTimeout(final Duration defaultTimeout) {
+        return requestTimeout > 0 ? Duration.ofMillis(requestTimeout) : defaultTimeout;
+    }
+
+    HttpClient.Version getHttpVersion() {
+        return http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1;
+    }
+
+    /**
+     * A repository cache that closes what it holds, like the state of the http transport with its connection pools.
+     */
+    private static final class RunCache implements RepositoryCache, Closeable {
+        private final Map<Object, Object> entries = new ConcurrentHashMap<>();
+
+        @Override
+        public void put(final RepositorySystemSession session, final Object key, final Object data) {
+            if (data != null) {
+                entries.put(key, data);
+            } else {
+                entries.remove(key);
+            }
+        }
+
+        @Override
+        public Object get(final RepositorySystemSession session, final Object key) {
+            return entries.get(key);
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (Object data : entries.values()) {
+                if (data instanceof Closeable) {
+                    try {
+                        ((Closeable) data).close();
+                    } catch (IOException e) {
+                        failure = e;
+                    }
+                }
+            }
+            entries.clear();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static void setIfAbsent(final DefaultRepositorySystemSession session, final String key,
+                                    final Object value) {
+        if (!session.getConfigProperties().containsKey(key)) {
+            session.setConfigProperty(key, value);
+        }
+    }
+}
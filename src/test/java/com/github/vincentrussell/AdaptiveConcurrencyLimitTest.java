@@ -0,0 +1,109 @@
+package com.github.vincentrussell;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    @Test
+    public void growByOnePerRequestUntilTheFirstBackoff() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 8);
+
+        //every request that finishes while at least half of the limit is in use adds one
+        for (int round = 0; round < 3; round++) {
+            long[] tickets = new long[limit.getLimit()];
+            for (int i = 0; i < tickets.length; i++) {
+                tickets[i] = limit.acquire();
+            }
+            for (long ticket : tickets) {
+                limit.release(ticket, LATENCY, 0, false);
+            }
+        }
+
+        assertEquals(5, limit.getLimit());
+    }
+
+    @Test
+    public void doNotGrowWhileTheLimitIsNotUsed() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 8);
+
+        for (int i = 0; i < 10; i++) {
+            limit.release(limit.acquire(), LATENCY, 0, false);
+        }
+
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    public void neverGrowBeyondTheMaximum() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 2);
+
+        for (int i = 0; i < 10; i++) {
+            limit.release(limit.acquire(), LATENCY, 0, false);
+        }
+
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void halveOncePerWindowWhenOverloaded() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 8);
+        long[] tickets = new long[8];
+        for (int i = 0; i < tickets.length; i++) {
+            tickets[i] = limit.acquire();
+        }
+
+        for (long ticket : tickets) {
+            limit.release(ticket, LATENCY, 0, true);
+        }
+        assertEquals(4, limit.getLimit());
+
+        limit.release(limit.acquire(), LATENCY, 0, true);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    public void growAdditivelyAfterTheFirstBackoff() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 8);
+        limit.release(limit.acquire(), LATENCY, 0, true);
+        assertEquals(2, limit.getLimit());
+
+        for (int i = 0; i < 3; i++) {
+            long first = limit.acquire();
+            long second = limit.acquire();
+            limit.release(first, LATENCY, 0, false);
+            limit.release(second, LATENCY, 0, false);
+        }
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    public void backOffWhenLatencyRises() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 4);
+        for (int i = 0; i < 10; i++) {
+            limit.release(limit.acquire(), LATENCY, 0, false);
+        }
+
+        limit.release(limit.acquire(), LATENCY * 10, 0, false);
+
+        assertEquals(3, limit.getLimit());
+    }
+
+    @Test
+    public void measureLatencyPerMegabyteUploaded() throws Exception {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 4);
+        for (int i = 0; i < 10; i++) {
+            limit.release(limit.acquire(), LATENCY, 0, false);
+        }
+
+        limit.release(limit.acquire(), LATENCY * 10, 9 * 1024 * 1024, false);
+
+        assertEquals(4, limit.getLimit());
+    }
+}
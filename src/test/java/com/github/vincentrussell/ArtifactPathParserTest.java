@@ -0,0 +1,83 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.Artifact;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.file.Paths;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ArtifactPathParserTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void parseMainArtifact() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        Artifact artifact = new ArtifactPathParser(repository).parse(file(repository,
+                "com/github/vincentrussell/cool-artifact/1.0/cool-artifact-1.0.jar"));
+
+        assertEquals("com.github.vincentrussell", artifact.getGroupId());
+        assertEquals("cool-artifact", artifact.getArtifactId());
+        assertEquals("1.0", artifact.getVersion());
+        assertNull(artifact.getClassifier());
+        assertEquals("jar", artifact.getType());
+        assertEquals("jar", artifact.getArtifactHandler().getExtension());
+    }
+
+    @Test
+    public void parseClassifierAndCompoundExtension() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        Artifact artifact = new ArtifactPathParser(repository).parse(file(repository,
+                "com/github/vincentrussell/cool-artifact/1.0-SNAPSHOT/cool-artifact-1.0-SNAPSHOT-sources.jar.sha1"));
+
+        assertEquals("1.0-SNAPSHOT", artifact.getVersion());
+        assertEquals("sources", artifact.getClassifier());
+        assertEquals("jar.sha1", artifact.getType());
+    }
+
+    @Test
+    public void parseRepositoryPathWithRegexCharacters() throws Exception {
+        File repository = temporaryFolder.newFolder("repo+[1]");
+        Artifact artifact = new ArtifactPathParser(repository).parse(file(repository,
+                "org/example/thing/2.0/thing-2.0.pom"));
+
+        assertEquals("org.example", artifact.getGroupId());
+        assertEquals("thing", artifact.getArtifactId());
+        assertEquals("pom", artifact.getType());
+    }
+
+    @Test
+    public void ignoreFilesOutsideTheLayout() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        ArtifactPathParser parser = new ArtifactPathParser(repository);
+
+        assertNull(parser.parse(file(repository, "com/github/cool-artifact/1.0/maven-metadata.xml")));
+        assertNull(parser.parse(file(repository, "com/github/cool-artifact/1.0/_remote.repositories")));
+        assertNull(parser.parse(file(repository, "com/github/cool-artifact/1.0/cool-artifact-1x0.jar")));
+        assertNull(parser.parse(file(repository, "com/github/cool-artifact/1.0/cool-artifact-1.0-.jar")));
+        assertNull(parser.parse(file(repository, "com/github/cool-artifact/1.0/cool-artifact-1.0.")));
+        assertNull(parser.parse(file(repository, "cool-artifact/1.0/cool-artifact-1.0.jar")));
+    }
+
+    @Test
+    public void shareArtifactHandlersPerExtension() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        ArtifactPathParser parser = new ArtifactPathParser(repository, 1);
+
+        Artifact jar = parser.parse(file(repository, "org/example/thing/2.0/thing-2.0.jar"));
+        Artifact otherJar = parser.parse(file(repository, "org/example/other/1.0/other-1.0-sources.jar"));
+
+        assertSame(jar.getArtifactHandler(), otherJar.getArtifactHandler());
+    }
+
+    private File file(final File repository, final String relativePath) {
+        return Paths.get(repository.getAbsolutePath(), relativePath.split("/")).toFile();
+    }
+}
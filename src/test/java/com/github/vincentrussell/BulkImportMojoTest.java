@@ -14,6 +14,7 @@ import org.apache.maven.execution.DefaultMavenExecutionRequest;
 import org.apache.maven.execution.MavenExecutionRequest;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.MojoExecution;
+import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.testing.AbstractMojoTestCase;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.ProjectBuilder;
@@ -25,6 +26,7 @@ import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.eclipse.aether.repository.NoLocalRepositoryManagerException;
 import org.eclipse.jetty.ee10.servlet.ServletContextHandler;
 import org.eclipse.jetty.ee10.servlet.ServletHolder;
+import org.eclipse.jetty.io.ConnectionStatistics;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
@@ -35,9 +37,21 @@ import org.junit.rules.TemporaryFolder;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 public class BulkImportMojoTest extends AbstractMojoTestCase {
 
@@ -48,7 +62,12 @@ public class BulkImportMojoTest extends AbstractMojoTestCase {
     private final String snapshotVersion = "1.0-SNAPSHOT";
 
     private Server jettyServer;
+    private NexusServlet nexusServlet;
+    private BundleServlet bundleServlet;
+    private NexusServlet drServlet;
+    private ConnectionStatistics connectionStatistics;
     private File jettyNexusBaseDir;
+    private File jettyDrBaseDir;
     private File localBaseDir;
     private ArtifactRepository localRepo;
     private File localReleaseArtifactDir;
@@ -63,18 +82,25 @@ public class BulkImportMojoTest extends AbstractMojoTestCase {
     protected void setUp() throws Exception {
         temporaryFolder.create();
         jettyNexusBaseDir = temporaryFolder.newFolder("jetty-remote");
+        jettyDrBaseDir = temporaryFolder.newFolder("jetty-dr");
         localBaseDir = temporaryFolder.newFolder("local-base-dir");
         localRepo = createLocalArtifactRepository(localBaseDir);
 
         jettyServer = new Server();
         ServerConnector httpConnector = new ServerConnector(jettyServer);
         httpConnector.setPort(httpPort);
+        connectionStatistics = new ConnectionStatistics();
+        httpConnector.addBean(connectionStatistics);
         jettyServer.setConnectors(new Connector[]{httpConnector});
 
         ServletContextHandler servletHandler = new ServletContextHandler(ServletContextHandler.NO_SESSIONS);
-        NexusServlet nexusServlet = new NexusServlet(jettyNexusBaseDir);
+        nexusServlet = new NexusServlet(jettyNexusBaseDir);
         ServletHolder holder = new ServletHolder(nexusServlet);
         servletHandler.addServlet(holder, "/repository/thirdparty/*");
+        bundleServlet = new BundleServlet(jettyNexusBaseDir);
+        servletHandler.addServlet(new ServletHolder(bundleServlet), "/bundle/thirdparty");
+        drServlet = new NexusServlet(jettyDrBaseDir);
+        servletHandler.addServlet(new ServletHolder(drServlet), "/repository/dr/*");
         jettyServer.setHandler(servletHandler);
         jettyServer.start();
 
@@ -361,6 +387,793 @@ public class BulkImportMojoTest extends AbstractMojoTestCase {
         assertNull(remoteSnapshotArtifactDir.listFiles());
     }
 
+    @Test
+    public void testDeployWithMultipleThreads() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>SNAPSHOT_AND_RELEASE</deploymentType>
+                <threads>4</threads>
+                <queueSize>2</queueSize>
+                """.formatted(httpPort);
+
+        String otherArtifactId = "other-artifact";
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, artifactId, snapshotVersion);
+        simulateLocalMavenFiles(localBaseDir, otherArtifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, otherArtifactId, "2.0");
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+        assertNull(remoteReleaseArtifactDir.listFiles());
+        assertNull(remoteSnapshotArtifactDir.listFiles());
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, otherArtifactId, releaseVersion).toPath(),
+                getBaseDirectoryForArtifact(jettyNexusBaseDir, otherArtifactId, releaseVersion).toPath());
+        verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, otherArtifactId, "2.0").toPath(),
+                getBaseDirectoryForArtifact(jettyNexusBaseDir, otherArtifactId, "2.0").toPath());
+        assertTrue(new File(remoteSnapshotArtifactDir, "maven-metadata.xml").exists());
+    }
+
+    @Test
+    public void testReuseConnectionsAcrossDeployments() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>RELEASE_ONLY</deploymentType>
+                <threads>2</threads>
+                <maxConnectionsPerRoute>2</maxConnectionsPerRoute>
+                <connectTimeout>5000</connectTimeout>
+                <requestTimeout>30000</requestTimeout>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        for (int i = 0; i < 10; i++) {
+            simulateLocalMavenFiles(localBaseDir, "artifact-" + i, releaseVersion);
+        }
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        for (int i = 0; i < 10; i++) {
+            verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, "artifact-" + i, releaseVersion).toPath(),
+                    getBaseDirectoryForArtifact(jettyNexusBaseDir, "artifact-" + i, releaseVersion).toPath());
+        }
+        assertTrue(nexusServlet.uploads.size() > 100);
+        assertTrue(String.valueOf(connectionStatistics.getConnectionsTotal()),
+                connectionStatistics.getConnectionsTotal() <= 4);
+    }
+
+    @Test
+    public void testUploadReleasesInBundles() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>SNAPSHOT_AND_RELEASE</deploymentType>
+                <threads>2</threads>
+                <bundleUrl>http://localhost:%d/bundle/thirdparty</bundleUrl>
+                <bundleSize>20000</bundleSize>
+                """.formatted(httpPort, httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        for (int i = 0; i < 10; i++) {
+            simulateLocalMavenFiles(localBaseDir, "artifact-" + i, releaseVersion);
+        }
+        simulateLocalMavenFiles(localBaseDir, artifactId, snapshotVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        for (int i = 0; i < 10; i++) {
+            File localDir = getBaseDirectoryForArtifact(localBaseDir, "artifact-" + i, releaseVersion);
+            File remoteDir = getBaseDirectoryForArtifact(jettyNexusBaseDir, "artifact-" + i, releaseVersion);
+            verifyDirsAreEqual(localDir.toPath(), remoteDir.toPath());
+            String jar = "artifact-" + i + "-" + releaseVersion + ".jar";
+            assertTrue(new File(remoteDir, jar + ".md5").isFile());
+            assertEquals(sha1(new File(localDir, jar)),
+                    FileUtils.readFileToString(new File(remoteDir, jar + ".sha1"), StandardCharsets.UTF_8));
+        }
+        assertTrue(new File(remoteSnapshotArtifactDir, "maven-metadata.xml").exists());
+        assertEquals(4, bundleServlet.bundles.get());
+        assertFalse(nexusServlet.uploads.stream().anyMatch(upload -> upload.contains("/" + releaseVersion + "/")));
+        assertTrue(nexusServlet.uploads.stream().anyMatch(upload -> upload.contains("/" + snapshotVersion + "/")));
+        assertEquals(120, bundleServlet.entries.get());
+    }
+
+    @Test
+    public void testUploadBundlesWithTheConfiguredMethodAndHeaders() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>RELEASE_ONLY</deploymentType>
+                <bundleUrl>http://localhost:%d/bundle/thirdparty</bundleUrl>
+                <bundleMethod>PUT</bundleMethod>
+                <bundleHeaders>
+                    <X-Explode-Archive>true</X-Explode-Archive>
+                </bundleHeaders>
+                """.formatted(httpPort, httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        assertEquals(List.of("PUT application/zip true"), new ArrayList<>(bundleServlet.requests));
+    }
+
+    @Test
+    public void testDeployEachVersionInOneRequest() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>RELEASE_ONLY</deploymentType>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        assertEquals(1, nexusServlet.metadataUploads.get());
+    }
+
+    @Test
+    public void testResumeFromJournal() throws Exception {
+        File journalFile = new File(temporaryFolder.getRoot(), "bulk-import.journal");
+        FileUtils.write(journalFile, "com.github.vincentrussell:cool-artifact:1.0\ncom.github.vincentrus",
+                StandardCharsets.UTF_8);
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>SNAPSHOT_AND_RELEASE</deploymentType>
+                <journalFile>%s</journalFile>
+                <resume>true</resume>
+                """.formatted(httpPort, journalFile.getAbsolutePath());
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, artifactId, snapshotVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        assertNull(remoteReleaseArtifactDir.listFiles());
+        assertTrue(new File(remoteSnapshotArtifactDir, "maven-metadata.xml").exists());
+        assertTrue(FileUtils.readLines(journalFile, StandardCharsets.UTF_8)
+                .contains("com.github.vincentrussell:cool-artifact:1.0-SNAPSHOT"));
+    }
+
+    @Test
+    public void testSyncSkipsExistingReleases() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <syncMode>EXISTENCE</syncMode>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, artifactId, "2.0");
+        FileUtils.copyDirectory(localReleaseArtifactDir, remoteReleaseArtifactDir);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, artifactId, "2.0").toPath(),
+                getBaseDirectoryForArtifact(jettyNexusBaseDir, artifactId, "2.0").toPath());
+        assertFalse(nexusServlet.uploads.isEmpty());
+        for (String upload : nexusServlet.uploads) {
+            assertFalse(upload, upload.contains("/" + releaseVersion + "/"));
+        }
+    }
+
+    @Test
+    public void testSyncComparesChecksums() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <syncMode>CHECKSUM</syncMode>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        String jar = artifactId + "-" + releaseVersion + ".jar";
+        String pom = artifactId + "-" + releaseVersion + ".pom";
+        String sources = artifactId + "-" + releaseVersion + "-sources.jar";
+        for (String fileName : new String[]{jar, pom, sources}) {
+            FileUtils.write(new File(localReleaseArtifactDir, fileName + ".sha1"),
+                    sha1(new File(localReleaseArtifactDir, fileName)), StandardCharsets.UTF_8);
+        }
+        FileUtils.copyDirectory(localReleaseArtifactDir, remoteReleaseArtifactDir);
+        FileUtils.write(new File(remoteReleaseArtifactDir, pom + ".sha1"), "0000000000000000000000000000000000000000",
+                StandardCharsets.UTF_8);
+        assertTrue(new File(remoteReleaseArtifactDir, sources + ".sha1").delete());
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        assertFalse(nexusServlet.uploads.stream().anyMatch(upload -> upload.endsWith("/" + jar)));
+        assertTrue(nexusServlet.uploads.stream().anyMatch(upload -> upload.endsWith("/" + pom)));
+        assertTrue(nexusServlet.uploads.stream().anyMatch(upload -> upload.endsWith("/" + sources)));
+        assertEquals(sha1(new File(localReleaseArtifactDir, pom)), FileUtils.readFileToString(
+                new File(remoteReleaseArtifactDir, pom + ".sha1"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testReuseChecksums() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <reuseChecksums>true</reuseChecksums>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        String jar = artifactId + "-" + releaseVersion + ".jar";
+        String javadoc = artifactId + "-" + releaseVersion + "-javadoc.jar";
+        File localJar = new File(localReleaseArtifactDir, jar);
+        String jarSha1 = sha1(localJar).toUpperCase();
+        FileUtils.write(new File(localReleaseArtifactDir, jar + ".sha1"), jarSha1, StandardCharsets.UTF_8);
+        FileUtils.write(new File(localReleaseArtifactDir, jar + ".md5"), HexFormat.of().formatHex(
+                MessageDigest.getInstance("MD5").digest(FileUtils.readFileToByteArray(localJar))),
+                StandardCharsets.UTF_8);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        assertEquals(jarSha1, FileUtils.readFileToString(new File(remoteReleaseArtifactDir, jar + ".sha1"),
+                StandardCharsets.UTF_8));
+        assertEquals(sha1(new File(localReleaseArtifactDir, javadoc)), FileUtils.readFileToString(
+                new File(remoteReleaseArtifactDir, javadoc + ".sha1"), StandardCharsets.UTF_8));
+        assertEquals(1, nexusServlet.uploads.stream().filter(upload -> upload.endsWith("/" + jar + ".sha1")).count());
+        assertEquals(1, nexusServlet.uploads.stream().filter(upload -> upload.endsWith("/" + javadoc + ".sha1")).count());
+        assertTrue(new File(remoteReleaseArtifactDir.getParentFile(), "maven-metadata.xml.sha1").exists());
+        assertEquals(FileUtils.readFileToString(new File(localReleaseArtifactDir, jar + ".md5"), StandardCharsets.UTF_8),
+                FileUtils.readFileToString(new File(remoteReleaseArtifactDir, jar + ".md5"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCalculateChecksumsWhenChecksumFilesAreStale() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <reuseChecksums>true</reuseChecksums>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        String jar = artifactId + "-" + releaseVersion + ".jar";
+        File localJar = new File(localReleaseArtifactDir, jar);
+        FileUtils.write(new File(localReleaseArtifactDir, jar + ".sha1"), "0".repeat(40), StandardCharsets.UTF_8);
+        FileUtils.write(new File(localReleaseArtifactDir, jar + ".md5"), "0".repeat(32), StandardCharsets.UTF_8);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        assertEquals(sha1(localJar), FileUtils.readFileToString(new File(remoteReleaseArtifactDir, jar + ".sha1"),
+                StandardCharsets.UTF_8));
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(
+                FileUtils.readFileToByteArray(localJar))), FileUtils.readFileToString(
+                new File(remoteReleaseArtifactDir, jar + ".md5"), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCalculateChecksumsOfLargeFiles() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>RELEASE_ONLY</deploymentType>
+                <largeFileThreshold>1</largeFileThreshold>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        ((DefaultRepositorySystemSession) session.getRepositorySession())
+                .setConfigProperty(Checksums.CHECKSUM_ALGORITHMS, "SHA-256,SHA-512");
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        String jar = artifactId + "-" + releaseVersion + ".jar";
+        byte[] jarContent = FileUtils.readFileToByteArray(new File(localReleaseArtifactDir, jar));
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(jarContent)),
+                FileUtils.readFileToString(new File(remoteReleaseArtifactDir, jar + ".sha256"), StandardCharsets.UTF_8));
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-512").digest(jarContent)),
+                FileUtils.readFileToString(new File(remoteReleaseArtifactDir, jar + ".sha512"), StandardCharsets.UTF_8));
+        assertEquals(1, nexusServlet.uploads.stream().filter(upload -> upload.endsWith("/" + jar + ".sha256")).count());
+        assertTrue(new File(remoteReleaseArtifactDir.getParentFile(), "maven-metadata.xml.sha256").exists());
+    }
+
+    @Test
+    public void testRetryTransientFailures() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <retries>2</retries>
+                <retryBackoff>10</retryBackoff>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        nexusServlet.transientUploadFailures.set(2);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        assertEquals(0, nexusServlet.transientUploadFailures.get());
+    }
+
+    @Test
+    public void testDoNotRetryRejectedUploads() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <retries>2</retries>
+                <retryBackoff>10</retryBackoff>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        nexusServlet.transientUploadFailureStatus = HttpServletResponse.SC_FORBIDDEN;
+        nexusServlet.transientUploadFailures.set(1);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        try {
+            bulkImportMojo.execute();
+            fail("expected the rejected version to fail the build");
+        } catch (MojoExecutionException e) {
+            assertEquals("1 artifact version(s) failed deployment", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testContinuePastFailedVersions() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <retries>1</retries>
+                <retryBackoff>10</retryBackoff>
+                """.formatted(httpPort);
+
+        String otherArtifactId = "other-artifact";
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, otherArtifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, otherArtifactId, "2.0");
+        nexusServlet.rejectedUploads = "/" + otherArtifactId + "/" + releaseVersion + "/";
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        try {
+            bulkImportMojo.execute();
+            fail("expected the failed version to fail the build");
+        } catch (MojoExecutionException e) {
+            assertEquals("1 artifact version(s) failed deployment", e.getMessage());
+        }
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, otherArtifactId, "2.0").toPath(),
+                getBaseDirectoryForArtifact(jettyNexusBaseDir, otherArtifactId, "2.0").toPath());
+    }
+
+    @Test
+    public void testThrottleRequests() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <threads>4</threads>
+                <maxRequestsPerSecond>20</maxRequestsPerSecond>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, "other-artifact", releaseVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        long start = System.nanoTime();
+        bulkImportMojo.execute();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        //one second worth of requests may go through at once, every further upload is at least one request
+        long minimumMillis = (nexusServlet.uploads.size() - 20) * 1000L / 20;
+        assertTrue(elapsedMillis + " < " + minimumMillis, elapsedMillis >= minimumMillis);
+    }
+
+    @Test
+    public void testAdaptiveConcurrencyBacksOffWhenOverloaded() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <threads>4</threads>
+                <adaptiveConcurrency>true</adaptiveConcurrency>
+                <retryBackoff>10</retryBackoff>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        //let the plugin see the 503s instead of the http transport retrying them itself
+        ((DefaultRepositorySystemSession) session.getRepositorySession())
+                .setConfigProperty("aether.connector.http.retryHandler.serviceUnavailable", "");
+        for (int i = 0; i < 4; i++) {
+            simulateLocalMavenFiles(localBaseDir, "artifact-" + i, releaseVersion);
+        }
+        nexusServlet.transientUploadFailureStatus = HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+        nexusServlet.transientUploadFailures.set(2);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        for (int i = 0; i < 4; i++) {
+            verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, "artifact-" + i, releaseVersion).toPath(),
+                    getBaseDirectoryForArtifact(jettyNexusBaseDir, "artifact-" + i, releaseVersion).toPath());
+        }
+        assertEquals(0, nexusServlet.transientUploadFailures.get());
+    }
+
+    @Test
+    public void testWriteMetricsReport() throws Exception {
+        File outputDirectory = new File(temporaryFolder.getRoot(), "target");
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <outputDirectory>%s</outputDirectory>
+                """.formatted(httpPort, outputDirectory.getAbsolutePath());
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        String report = FileUtils.readFileToString(new File(outputDirectory, BulkImportMojo.REPORT_FILE_NAME),
+                StandardCharsets.UTF_8);
+        assertTrue(report, report.contains("\"counts\":{\"deployed\":8,\"skipped\":0,\"failed\":0,"));
+        assertTrue(report, report.contains("\"bytes\":{\"deployed\":16000,"));
+        assertTrue(report, report.contains("\"upload\":{\"count\":1,"));
+        assertTrue(report, report.contains("\"version\":{\"count\":1,"));
+        assertTrue(report, report.contains("\"walk\":{\"millis\":"));
+        assertTrue(report, report.contains("\"filtered\":{\"notAnArtifact\":0,"));
+        assertTrue(report, report.trim().endsWith("\"failures\":[]}"));
+    }
+
+    @Test
+    public void testDryRunWritesManifest() throws Exception {
+        File outputDirectory = new File(temporaryFolder.getRoot(), "target");
+        File journalFile = new File(temporaryFolder.getRoot(), "bulk-import.journal");
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>RELEASE_ONLY</deploymentType>
+                <outputDirectory>%s</outputDirectory>
+                <journalFile>%s</journalFile>
+                <dryRun>true</dryRun>
+                """.formatted(httpPort, outputDirectory.getAbsolutePath(), journalFile.getAbsolutePath());
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, artifactId, snapshotVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        assertFalse(remoteReleaseArtifactDir.exists());
+        assertTrue(nexusServlet.uploads.isEmpty());
+        assertFalse(journalFile.exists());
+        List<String> lines = FileUtils.readLines(new File(outputDirectory, BulkImportMojo.MANIFEST_FILE_NAME),
+                StandardCharsets.UTF_8);
+        assertEquals(6, lines.size());
+        String[] version = lines.get(1).split("\t");
+        assertEquals("com.github.vincentrussell:" + artifactId + ":" + releaseVersion, version[0]);
+        assertEquals("com/github/vincentrussell/" + artifactId + "/" + releaseVersion, version[1]);
+        assertEquals(10, version.length);
+        assertTrue(Arrays.asList(version).contains("2000 " + artifactId + "-" + releaseVersion + ".jar"));
+        assertEquals(List.of("# versions\t1", "# files\t8", "# bytes\t16000", "# requests\t28"),
+                lines.subList(2, 6));
+    }
+
+    @Test
+    public void testDeployFromManifest() throws Exception {
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, artifactId, snapshotVersion);
+        simulateLocalMavenFiles(localBaseDir, "other-artifact", releaseVersion);
+        File manifest = new File(temporaryFolder.getRoot(), "manifest.txt");
+        StringBuilder release = new StringBuilder("com.github.vincentrussell:" + artifactId + ":" + releaseVersion
+                + "\tcom/github/vincentrussell/" + artifactId + "/" + releaseVersion);
+        for (File file : localReleaseArtifactDir.listFiles()) {
+            release.append('\t').append(file.length()).append(' ').append(file.getName());
+        }
+        FileUtils.writeLines(manifest, StandardCharsets.UTF_8.name(), List.of("# comment", release.toString(),
+                localBaseDir.toPath().relativize(localSnapshotArtifactDir.toPath()).toString()));
+
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>SNAPSHOT_AND_RELEASE</deploymentType>
+                <manifest>%s</manifest>
+                """.formatted(httpPort, manifest.getAbsolutePath());
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        assertTrue(new File(remoteSnapshotArtifactDir, "maven-metadata.xml").exists());
+        assertFalse(getBaseDirectoryForArtifact(jettyNexusBaseDir, "other-artifact", releaseVersion).exists());
+    }
+
+    @Test
+    public void testScanIndexSkipsUnchangedVersions() throws Exception {
+        File scanIndex = new File(temporaryFolder.getRoot(), "scan.index");
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>RELEASE_ONLY</deploymentType>
+                <scanIndex>%s</scanIndex>
+                """.formatted(httpPort, scanIndex.getAbsolutePath());
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        ((BulkImportMojo) lookupConfiguredMojo(session, execution)).execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        assertTrue(FileUtils.readFileToString(scanIndex, StandardCharsets.UTF_8).contains(
+                "com/github/vincentrussell/" + artifactId + "/" + releaseVersion + "\t"));
+
+        nexusServlet.uploads.clear();
+        simulateLocalMavenFiles(localBaseDir, artifactId, "2.0");
+        ((BulkImportMojo) lookupConfiguredMojo(session, execution)).execute();
+
+        verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, artifactId, "2.0").toPath(),
+                getBaseDirectoryForArtifact(jettyNexusBaseDir, artifactId, "2.0").toPath());
+        assertFalse(nexusServlet.uploads.isEmpty());
+        assertFalse(nexusServlet.uploads.stream().anyMatch(upload -> upload.contains("/" + releaseVersion + "/")));
+    }
+
+    @Test
+    public void testIncludeAndExcludePatterns() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>RELEASE_ONLY</deploymentType>
+                <includes>
+                    <include>com.github:cool-*</include>
+                    <include>com.github.*:cool-*</include>
+                    <include>org.example</include>
+                </includes>
+                <excludes>
+                    <exclude>**:*:2.*</exclude>
+                </excludes>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, artifactId, "2.0");
+        simulateLocalMavenFiles(localBaseDir, "other-artifact", releaseVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        assertFalse(getBaseDirectoryForArtifact(jettyNexusBaseDir, artifactId, "2.0").exists());
+        assertFalse(getBaseDirectoryForArtifact(jettyNexusBaseDir, "other-artifact", releaseVersion).exists());
+    }
+
+    @Test
+    public void testScanInParallel() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>SNAPSHOT_AND_RELEASE</deploymentType>
+                <threads>2</threads>
+                <scanParallelism>4</scanParallelism>
+                """.formatted(httpPort);
+
+        String otherArtifactId = "other-artifact";
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, artifactId, snapshotVersion);
+        simulateLocalMavenFiles(localBaseDir, otherArtifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, otherArtifactId, "2.0");
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, otherArtifactId, releaseVersion).toPath(),
+                getBaseDirectoryForArtifact(jettyNexusBaseDir, otherArtifactId, releaseVersion).toPath());
+        verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, otherArtifactId, "2.0").toPath(),
+                getBaseDirectoryForArtifact(jettyNexusBaseDir, otherArtifactId, "2.0").toPath());
+        assertTrue(new File(remoteSnapshotArtifactDir, "maven-metadata.xml").exists());
+    }
+
+    @Test
+    public void testDeployOnlyTheArtifactsOfTheShard() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>RELEASE_ONLY</deploymentType>
+                <shardCount>2</shardCount>
+                <shardIndex>1</shardIndex>
+                """.formatted(httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        for (int i = 0; i < 10; i++) {
+            simulateLocalMavenFiles(localBaseDir, "artifact-" + i, releaseVersion);
+            simulateLocalMavenFiles(localBaseDir, "artifact-" + i, "2.0");
+        }
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        int deployed = 0;
+        for (int i = 0; i < 10; i++) {
+            boolean inShard = Shard.getIndex("com.github.vincentrussell", "artifact-" + i, 2) == 1;
+            for (String version : List.of(releaseVersion, "2.0")) {
+                File remoteDir = getBaseDirectoryForArtifact(jettyNexusBaseDir, "artifact-" + i, version);
+                assertEquals("artifact-" + i + ":" + version, inShard, remoteDir.exists());
+                if (inShard) {
+                    verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, "artifact-" + i, version).toPath(),
+                            remoteDir.toPath());
+                    deployed++;
+                }
+            }
+        }
+        assertTrue(deployed > 0 && deployed < 20);
+    }
+
+    @Test
+    public void testDeployToSeveralRepositories() throws Exception {
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>SNAPSHOT_AND_RELEASE</deploymentType>
+                <threads>2</threads>
+                <targetRepositories>
+                  <targetRepository>dr::http://localhost:%d/repository/dr/</targetRepository>
+                </targetRepositories>
+                """.formatted(httpPort, httpPort);
+
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        for (int i = 0; i < 5; i++) {
+            simulateLocalMavenFiles(localBaseDir, "artifact-" + i, releaseVersion);
+        }
+        simulateLocalMavenFiles(localBaseDir, artifactId, snapshotVersion);
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        bulkImportMojo.execute();
+
+        for (File remoteBaseDir : List.of(jettyNexusBaseDir, jettyDrBaseDir)) {
+            for (int i = 0; i < 5; i++) {
+                verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, "artifact-" + i, releaseVersion).toPath(),
+                        getBaseDirectoryForArtifact(remoteBaseDir, "artifact-" + i, releaseVersion).toPath());
+            }
+            assertTrue(new File(getBaseDirectoryForArtifact(remoteBaseDir, artifactId, snapshotVersion),
+                    "maven-metadata.xml").exists());
+        }
+        assertEquals(nexusServlet.uploads.size(), drServlet.uploads.size());
+    }
+
+    @Test
+    public void testTrackFailuresPerRepository() throws Exception {
+        File journalFile = new File(temporaryFolder.getRoot(), "bulk-import.journal");
+        String config = """
+                <repositoryId>thirdparty</repositoryId>
+                <repositoryUrl>http://localhost:%d/repository/thirdparty/</repositoryUrl>
+                <deploymentType>RELEASE_ONLY</deploymentType>
+                <retries>0</retries>
+                <journalFile>%s</journalFile>
+                <targetRepositories>
+                  <targetRepository>dr::http://localhost:%d/repository/dr/</targetRepository>
+                </targetRepositories>
+                """.formatted(httpPort, journalFile.getAbsolutePath(), httpPort);
+
+        String otherArtifactId = "other-artifact";
+        MavenProject mavenProject = readMavenProject(new TestProjectConfig(temporaryFolder).getFile(config).getParentFile());
+        MavenSession session = finishSessionCreation(newMavenSession(mavenProject));
+        simulateLocalMavenFiles(localBaseDir, artifactId, releaseVersion);
+        simulateLocalMavenFiles(localBaseDir, otherArtifactId, releaseVersion);
+        drServlet.rejectedUploads = "/" + otherArtifactId + "/" + releaseVersion + "/";
+
+        MojoExecution execution = newMojoExecution("bulk-import");
+        BulkImportMojo bulkImportMojo = (BulkImportMojo) lookupConfiguredMojo(session, execution);
+
+        try {
+            bulkImportMojo.execute();
+            fail("the deployment to dr should have failed");
+        } catch (MojoExecutionException e) {
+            assertEquals("1 artifact version(s) failed deployment to dr", e.getMessage());
+        }
+
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(), remoteReleaseArtifactDir.toPath());
+        verifyDirsAreEqual(localReleaseArtifactDir.toPath(),
+                getBaseDirectoryForArtifact(jettyDrBaseDir, artifactId, releaseVersion).toPath());
+        verifyDirsAreEqual(getBaseDirectoryForArtifact(localBaseDir, otherArtifactId, releaseVersion).toPath(),
+                getBaseDirectoryForArtifact(jettyNexusBaseDir, otherArtifactId, releaseVersion).toPath());
+        assertEquals(List.of("com.github.vincentrussell:cool-artifact:1.0"),
+                FileUtils.readLines(journalFile, StandardCharsets.UTF_8));
+    }
+
     private static void verifyDirsAreEqual(final Path one, final Path other) throws IOException {
         Files.walkFileTree(one, new SimpleFileVisitor<>() {
 
@@ -429,6 +1242,10 @@ public class BulkImportMojoTest extends AbstractMojoTestCase {
         FileUtils.writeByteArrayToFile(jarFile, getRandomByteArray());
     }
 
+    private static String sha1(File file) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(FileUtils.readFileToByteArray(file)));
+    }
+
     private byte[] getRandomByteArray() {
         byte[] b = new byte[2000];
         new Random().nextBytes(b);
@@ -458,6 +1275,11 @@ public class BulkImportMojoTest extends AbstractMojoTestCase {
 
     public static class NexusServlet extends HttpServlet {
         private final File baseDir;
+        private final AtomicInteger metadataUploads = new AtomicInteger();
+        private final Queue<String> uploads = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger transientUploadFailures = new AtomicInteger();
+        private volatile int transientUploadFailureStatus = HttpServletResponse.SC_BAD_GATEWAY;
+        private volatile String rejectedUploads;
 
         public NexusServlet(File baseDir) {
             this.baseDir = baseDir;
@@ -483,13 +1305,32 @@ public class BulkImportMojoTest extends AbstractMojoTestCase {
                           </versioning>
                         </metadata>
                         """);
+                return;
+            }
+            File file = Paths.get(baseDir.getAbsolutePath(), request.getPathInfo()).toFile();
+            if (file.isFile()) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentLengthLong(file.length());
+                FileUtils.copyFile(file, response.getOutputStream());
+            } else {
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
             }
         }
 
         @Override
         protected void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            if (transientUploadFailures.getAndUpdate(failures -> Math.max(failures - 1, 0)) > 0
+                    || (rejectedUploads != null && request.getPathInfo().contains(rejectedUploads))) {
+                response.setStatus(rejectedUploads != null ? HttpServletResponse.SC_BAD_GATEWAY
+                        : transientUploadFailureStatus);
+                return;
+            }
             File file = Paths.get(baseDir.getAbsolutePath(), request.getPathInfo()).toFile();
             file.getParentFile().mkdirs();
+            if (file.getName().equals("maven-metadata.xml")) {
+                metadataUploads.incrementAndGet();
+            }
+            uploads.add(request.getPathInfo());
 
             try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
                 IOUtils.copy(request.getInputStream(), fileOutputStream);
@@ -500,4 +1341,45 @@ public class BulkImportMojoTest extends AbstractMojoTestCase {
             response.getWriter().println("OK");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Stand-in for the bulk import endpoint of a repository manager that unpacks every posted zip into the
+     * repository.
+     */
+    public static class BundleServlet extends HttpServlet {
+        private final File baseDir;
+        private final AtomicInteger bundles = new AtomicInteger();
+        private final AtomicInteger entries = new AtomicInteger();
+        private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+
+        public BundleServlet(File baseDir) {
+            this.baseDir = baseDir;
+        }
+
+        @Override
+        protected void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            doPost(request, response);
+        }
+
+        @Override
+        protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            requests.add(request.getMethod() + " " + request.getContentType() + " "
+                    + request.getHeader("X-Explode-Archive"));
+            try (ZipInputStream zipInputStream = new ZipInputStream(request.getInputStream())) {
+                ZipEntry entry;
+                while ((entry = zipInputStream.getNextEntry()) != null) {
+                    entries.incrementAndGet();
+                    File file = new File(baseDir, entry.getName());
+                    file.getParentFile().mkdirs();
+                    try (FileOutputStream fileOutputStream = new FileOutputStream(file)) {
+                        IOUtils.copy(zipInputStream, fileOutputStream);
+                    }
+                }
+            }
+            bundles.incrementAndGet();
+            response.setContentType("plain/text");
+            response.setStatus(HttpServletResponse.SC_CREATED);
+            response.getWriter().println("OK");
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+public class CheckpointJournalTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void ignoreAnEntryThatWasCutOffMidWrite() throws Exception {
+        File journalFile = new File(temporaryFolder.getRoot(), "bulk-import.journal");
+        FileUtils.writeStringToFile(journalFile, "com.example:lib:1.0\ncom.example:lib:2.0\ncom.example:li",
+                StandardCharsets.UTF_8);
+
+        assertEquals(Set.of("com.example:lib:1.0", "com.example:lib:2.0"), CheckpointJournal.read(journalFile));
+    }
+
+    @Test
+    public void dropAnEntryThatWasCutOffMidWriteWhenReopened() throws Exception {
+        File journalFile = new File(temporaryFolder.getRoot(), "bulk-import.journal");
+        FileUtils.writeStringToFile(journalFile, "com.example:lib:1.0\ncom.example:li", StandardCharsets.UTF_8);
+
+        try (CheckpointJournal journal = CheckpointJournal.open(journalFile)) {
+            journal.completed("com.example:lib:3.0");
+            assertEquals("com.example:lib:1.0\ncom.example:lib:3.0\n",
+                    FileUtils.readFileToString(journalFile, StandardCharsets.UTF_8));
+        }
+        assertEquals(Set.of("com.example:lib:1.0", "com.example:lib:3.0"), CheckpointJournal.read(journalFile));
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ChecksumsTest {
+
+    private static final List<String> ALGORITHMS = List.of("SHA-1", "MD5", "SHA-256", "SHA-512");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void calculateAllAlgorithmsOfSmallFile() throws Exception {
+        assertChecksums(createFile(1000));
+    }
+
+    @Test
+    public void calculateAllAlgorithmsOfMappedFile() throws Exception {
+        //larger than the mapping threshold and not a multiple of the slice size
+        assertChecksums(createFile(3 * 1024 * 1024 + 123));
+    }
+
+    @Test
+    public void checksumExtensions() {
+        assertEquals("sha1", Checksums.getExtension("SHA-1"));
+        assertEquals("md5", Checksums.getExtension("MD5"));
+        assertEquals("sha512", Checksums.getExtension("SHA-512"));
+    }
+
+    private File createFile(final int size) throws Exception {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        File file = temporaryFolder.newFile();
+        FileUtils.writeByteArrayToFile(file, content);
+        return file;
+    }
+
+    private static void assertChecksums(final File file) throws Exception {
+        byte[] content = FileUtils.readFileToByteArray(file);
+
+        Map<String, String> checksums = Checksums.calculate(file, ALGORITHMS);
+
+        assertEquals(ALGORITHMS, List.copyOf(checksums.keySet()));
+        for (String algorithm : ALGORITHMS) {
+            assertEquals(algorithm, HexFormat.of().formatHex(MessageDigest.getInstance(algorithm).digest(content)),
+                    checksums.get(algorithm));
+        }
+    }
+}
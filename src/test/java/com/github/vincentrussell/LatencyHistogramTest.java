@@ -0,0 +1,41 @@
+package com.github.vincentrussell;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void reportPercentilesAsBucketUpperBounds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(4.0, histogram.getPercentileMillis(50), 0);
+        assertEquals(4.0, histogram.getPercentileMillis(90), 0);
+        assertEquals(100.0, histogram.getPercentileMillis(99), 0);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(3), histogram.getMinNanos());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), histogram.getMaxNanos());
+        assertEquals(TimeUnit.MICROSECONDS.toNanos(12700), histogram.getMeanNanos());
+    }
+
+    @Test
+    public void countSubMillisecondLatenciesInTheFirstBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(TimeUnit.MICROSECONDS.toNanos(300));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+
+        assertEquals(1, histogram.getBucketCount(0));
+        assertEquals(1, histogram.getBucketCount(1));
+        assertEquals(0, new LatencyHistogram().getMinNanos());
+        assertEquals(0.0, new LatencyHistogram().getPercentileMillis(99), 0);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.vincentrussell;
+
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PathFilterTest {
+
+    private final Path repository = Paths.get("repository");
+
+    @Test
+    public void includeGroupIdPrefixes() {
+        PathFilter pathFilter = new PathFilter.Builder()
+                .include(List.of("org.example", "com.acme.tools"))
+                .build();
+
+        assertTrue(isIncluded(pathFilter, "org/example/lib/1.0"));
+        assertTrue(isIncluded(pathFilter, "org/example/sub/lib/1.0"));
+        assertTrue(isIncluded(pathFilter, "com/acme/tools/cli/2.0"));
+        assertFalse(isIncluded(pathFilter, "org"));
+        assertFalse(isPruned(pathFilter, "org"));
+        assertFalse(isPruned(pathFilter, "com/acme"));
+        assertTrue(isPruned(pathFilter, "org/examples"));
+        assertTrue(isPruned(pathFilter, "com/acme/web"));
+        assertTrue(isPruned(pathFilter, "net"));
+    }
+
+    @Test
+    public void matchWildcardsPerSegment() {
+        PathFilter pathFilter = new PathFilter.Builder()
+                .include(List.of("org.*:lib-?:1.*", "**:api"))
+                .build();
+
+        assertTrue(isIncluded(pathFilter, "org/example/lib-a/1.0"));
+        assertFalse(isIncluded(pathFilter, "org/example/lib-ab/1.0"));
+        assertFalse(isIncluded(pathFilter, "org/example/lib-a/2.0"));
+        assertTrue(isIncluded(pathFilter, "com/acme/api/3.0"));
+        assertTrue(isIncluded(pathFilter, "api/3.0"));
+        assertFalse(isPruned(pathFilter, "net/other/lib"));
+    }
+
+    @Test
+    public void excludeSubtreesAndRequireEveryIncludeGroup() {
+        PathFilter pathFilter = new PathFilter.Builder()
+                .include(List.of("org.example"))
+                .include(List.of("**:*:1.0"))
+                .exclude(List.of("org.example.internal", "**:*:*-SNAPSHOT"))
+                .build();
+
+        assertTrue(isIncluded(pathFilter, "org/example/lib/1.0"));
+        assertFalse(isIncluded(pathFilter, "org/example/lib/2.0"));
+        assertTrue(isPruned(pathFilter, "org/example/internal"));
+        assertFalse(isIncluded(pathFilter, "org/example/lib/1.0-SNAPSHOT"));
+        assertTrue(isPruned(pathFilter, "com"));
+    }
+
+    @Test
+    public void matchArtifactIdsOnlyAtTheVersionDirectory() {
+        PathFilter pathFilter = new PathFilter.Builder()
+                .include(List.of("org.example:foo", "org.example:bar:1.0"))
+                .build();
+
+        assertTrue(isIncluded(pathFilter, "org/example/foo/1.0"));
+        assertFalse(isIncluded(pathFilter, "org/example/foo"));
+        //groupId org.example.foo shares the path prefix of org.example:foo
+        assertFalse(isIncluded(pathFilter, "org/example/foo/bar/1.0"));
+        assertTrue(isIncluded(pathFilter, "org/example/bar/1.0"));
+        assertFalse(isIncluded(pathFilter, "org/example/bar/1.0/baz/2.0"));
+        assertTrue(isPruned(pathFilter, "org/example/other"));
+
+        PathFilter excluding = new PathFilter.Builder()
+                .exclude(List.of("com.acme:tools"))
+                .build();
+        assertFalse(isIncluded(excluding, "com/acme/tools/1.0"));
+        assertFalse(isPruned(excluding, "com/acme/tools"));
+        assertTrue(isIncluded(excluding, "com/acme/tools/cli/1.0"));
+    }
+
+    @Test
+    public void filterNothingWithoutPatterns() {
+        assertNull(new PathFilter.Builder().include(List.of()).include(null).exclude(null).build());
+    }
+
+    private boolean isIncluded(final PathFilter pathFilter, final String directory) {
+        return pathFilter.getState(repository, repository.resolve(directory)).isIncluded();
+    }
+
+    private boolean isPruned(final PathFilter pathFilter, final String directory) {
+        return pathFilter.getState(repository, repository.resolve(directory)).isPruned();
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PendingVersionTest {
+
+    @Test
+    public void onlyTheLastTargetCompletesTheVersion() {
+        PendingVersion version = newVersion(3);
+
+        assertFalse(version.completed(ScanIndex.Status.DEPLOYED));
+        assertFalse(version.completed(ScanIndex.Status.DEPLOYED));
+        assertTrue(version.completed(ScanIndex.Status.DEPLOYED));
+        assertEquals(ScanIndex.Status.DEPLOYED, version.getStatus());
+        assertEquals("com.example:lib:1.0", version.getGav());
+    }
+
+    @Test
+    public void aFailureOnAnyTargetFailsTheVersion() {
+        PendingVersion version = newVersion(3);
+
+        version.completed(null);
+        version.completed(ScanIndex.Status.FAILED);
+        version.completed(ScanIndex.Status.DEPLOYED);
+
+        assertEquals(ScanIndex.Status.FAILED, version.getStatus());
+    }
+
+    @Test
+    public void anAbortOnAnyTargetLeavesTheVersionUndecided() {
+        PendingVersion version = newVersion(2);
+        version.getCalculatedChecksums().put(new File("lib-1.0.jar"), Map.of("SHA-1", "0"));
+
+        version.completed(ScanIndex.Status.DEPLOYED);
+        version.completed(null);
+
+        assertNull(version.getStatus());
+        assertTrue(version.getCalculatedChecksums().isEmpty());
+    }
+
+    private static PendingVersion newVersion(final int targets) {
+        Artifact artifact = new DefaultArtifact("com.example", "lib", "1.0", null, "jar", null,
+                new DefaultArtifactHandler("jar"));
+        artifact.setFile(new File("com/example/lib/1.0/lib-1.0.jar"));
+        return new PendingVersion(List.of(artifact), targets);
+    }
+}
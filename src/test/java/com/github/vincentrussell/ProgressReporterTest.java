@@ -0,0 +1,89 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProgressReporterTest {
+
+    private static final String REPOSITORY_URL = "http://localhost/repository/thirdparty/";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void reportProgressWithoutEtaUntilTheSizeIsEstimated() {
+        DeploymentSummary summary = new DeploymentSummary();
+        ProgressReporter progressReporter = new ProgressReporter(new SystemStreamLog(), summary, now::get);
+        progressReporter.scanned(10);
+        summary.filtered(FilterReason.SNAPSHOT);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals("progress: 10 file(s) scanned, 0 artifact(s) deployed, 0 B at 0 B/s, 1 not deployed, 0 failed",
+                progressReporter.getProgress());
+    }
+
+    @Test
+    public void estimateTheRemainingTimeFromTheBytesCompleted() {
+        ProgressReporter progressReporter = new ProgressReporter(new SystemStreamLog(), new DeploymentSummary(),
+                now::get);
+        progressReporter.estimated(100, 4 * 1024 * 1024);
+        progressReporter.scanned(25);
+        progressReporter.completed(1024 * 1024);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        assertEquals("progress: 25 of 100 file(s) scanned, 0 artifact(s) deployed, 0 B at 0 B/s, 0 not deployed, "
+                + "0 failed, 25% of 4.0 MiB, ETA 0:00:30", progressReporter.getProgress());
+    }
+
+    @Test
+    public void estimateTheSizeOfTheRepository() throws Exception {
+        File versionDirectory = temporaryFolder.newFolder("com", "example", "lib", "1.0");
+        FileUtils.writeStringToFile(new File(versionDirectory, "lib-1.0.jar"), "12345", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(versionDirectory, "lib-1.0.pom"), "123", StandardCharsets.UTF_8);
+        ProgressReporter progressReporter = new ProgressReporter(new SystemStreamLog(), new DeploymentSummary(),
+                now::get);
+
+        ProgressReporter.directorySize(temporaryFolder.getRoot(), null).estimate(progressReporter);
+        progressReporter.completed(4);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(2));
+
+        assertEquals("progress: 0 of 2 file(s) scanned, 0 artifact(s) deployed, 0 B at 0 B/s, 0 not deployed, "
+                + "0 failed, 50% of 8 B, ETA 0:00:02", progressReporter.getProgress());
+    }
+
+    @Test
+    public void leaveUnchangedDirectoriesOutOfTheEstimate() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        File unchangedDirectory = new File(repository, "com/example/lib/1.0");
+        File newDirectory = new File(repository, "com/example/lib/2.0");
+        FileUtils.writeStringToFile(new File(unchangedDirectory, "lib-1.0.jar"), "12345", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(newDirectory, "lib-2.0.jar"), "123", StandardCharsets.UTF_8);
+        File indexFile = new File(temporaryFolder.getRoot(), "scan.index");
+        ScanIndex previousRun = ScanIndex.load(indexFile, repository, List.of(REPOSITORY_URL));
+        previousRun.scanned(unchangedDirectory.toPath(), new ScanIndex.Fingerprint(unchangedDirectory.lastModified(),
+                5, new File(unchangedDirectory, "lib-1.0.jar").lastModified()));
+        previousRun.completed(unchangedDirectory.toPath(), ScanIndex.Status.DEPLOYED);
+        previousRun.save();
+        ProgressReporter progressReporter = new ProgressReporter(new SystemStreamLog(), new DeploymentSummary(),
+                now::get);
+
+        ProgressReporter.directorySize(repository, repository, null, null,
+                ScanIndex.load(indexFile, repository, List.of(REPOSITORY_URL))).estimate(progressReporter);
+
+        assertEquals("progress: 0 of 1 file(s) scanned, 0 artifact(s) deployed, 0 B at 0 B/s, 0 not deployed, "
+                + "0 failed, 0% of 3 B", progressReporter.getProgress());
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.vincentrussell;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RemoteRepositoryClientTest {
+
+    @Test
+    public void sameOriginNeedsTheSameSchemeHostAndPort() {
+        String repositoryUrl = "https://nexus.example.com/repository/thirdparty/";
+
+        assertTrue(RemoteRepositoryClient.isSameOrigin(repositoryUrl, "https://nexus.example.com/bundle/thirdparty"));
+        assertTrue(RemoteRepositoryClient.isSameOrigin(repositoryUrl, "https://NEXUS.example.com:443/bundle"));
+        assertFalse(RemoteRepositoryClient.isSameOrigin(repositoryUrl, "http://nexus.example.com/bundle"));
+        assertFalse(RemoteRepositoryClient.isSameOrigin(repositoryUrl, "https://nexus.example.com:8443/bundle"));
+        assertFalse(RemoteRepositoryClient.isSameOrigin(repositoryUrl, "https://nexus.example.org/bundle"));
+    }
+}
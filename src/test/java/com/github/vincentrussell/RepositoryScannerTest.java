@@ -0,0 +1,122 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RepositoryScannerTest {
+
+    private static final String REPOSITORY_URL = "http://localhost/repository/thirdparty/";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void parallelScanFindsTheSameFilesAsSequentialScan() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        for (String groupPath : List.of("com/example", "com/example/tools", "org/example", "org/other")) {
+            for (int artifact = 0; artifact < 5; artifact++) {
+                for (int version = 0; version < 3; version++) {
+                    String name = "lib" + artifact + "-" + version + ".0";
+                    File directory = new File(repository, groupPath + "/lib" + artifact + "/" + version + ".0");
+                    FileUtils.writeStringToFile(new File(directory, name + ".jar"), "jar", StandardCharsets.UTF_8);
+                    FileUtils.writeStringToFile(new File(directory, name + ".pom"), "pom", StandardCharsets.UTF_8);
+                }
+            }
+        }
+        PathFilter pathFilter = new PathFilter.Builder().exclude(List.of("org.other")).build();
+
+        Map<String, Set<String>> sequential = scan(repository, pathFilter, 1);
+        Map<String, Set<String>> parallel = scan(repository, pathFilter, 4);
+
+        assertEquals(45, sequential.size());
+        assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void parallelScanRegistersTheSameDirectoriesWithTheIndex() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        File parent = new File(repository, "com/example/lib/1.0");
+        File child = new File(parent, "nested");
+        FileUtils.writeStringToFile(new File(parent, "lib-1.0.jar"), "jar", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(child, "nested.jar"), "nested", StandardCharsets.UTF_8);
+        ScanIndex scanIndex = ScanIndex.load(new File(temporaryFolder.getRoot(), "scan.index"), repository,
+                List.of(REPOSITORY_URL));
+
+        new RepositoryScanner(repository, scanIndex, null, 4).scan((directory, files) -> {
+            scanIndex.completed(directory.toPath(), ScanIndex.Status.DEPLOYED);
+            return true;
+        });
+
+        assertNull(scanIndex.getEntry(parent.toPath(), REPOSITORY_URL));
+        assertEquals(ScanIndex.Status.DEPLOYED, scanIndex.getEntry(child.toPath(), REPOSITORY_URL).status());
+    }
+
+    @Test
+    public void parallelScanStopsWhenTheConsumerDoes() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        for (int version = 0; version < 50; version++) {
+            FileUtils.writeStringToFile(new File(repository, "com/example/lib/" + version + "/lib.jar"), "jar",
+                    StandardCharsets.UTF_8);
+        }
+        AtomicInteger accepted = new AtomicInteger();
+
+        new RepositoryScanner(repository, null, null, 2).scan((directory, files) -> accepted.incrementAndGet() < 3);
+
+        assertTrue(String.valueOf(accepted.get()), accepted.get() < 50);
+    }
+
+    @Test
+    public void leaveTheTimeOfTheConsumerOutOfTheWalk() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        for (int version = 0; version < 4; version++) {
+            FileUtils.writeStringToFile(new File(repository, "com/example/lib/" + version + "/lib.jar"), "jar",
+                    StandardCharsets.UTF_8);
+        }
+
+        for (int parallelism : new int[] {1, 4}) {
+            RepositoryScanner scanner = new RepositoryScanner(repository, null, null, parallelism);
+            long start = System.nanoTime();
+            scanner.scan((directory, files) -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                return true;
+            });
+            long scanNanos = System.nanoTime() - start;
+
+            assertTrue(String.valueOf(scanner.getWalkNanos()), scanner.getWalkNanos() > 0);
+            assertTrue(scanner.getWalkNanos() + " of " + scanNanos,
+                    scanner.getWalkNanos() < TimeUnit.MILLISECONDS.toNanos(100));
+        }
+    }
+
+    private static Map<String, Set<String>> scan(final File repository, final PathFilter pathFilter,
+                                                 final int parallelism) throws Exception {
+        Map<String, Set<String>> directories = new ConcurrentHashMap<>();
+        new RepositoryScanner(repository, null, pathFilter.getRootState(), parallelism).scan((directory, files) -> {
+            Set<String> names = new TreeSet<>();
+            for (File file : files) {
+                names.add(file.getName());
+            }
+            assertNull(directories.put(repository.toPath().relativize(directory.toPath()).toString(), names));
+            return true;
+        });
+        return new TreeMap<>(directories);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.vincentrussell;
+
+import org.apache.http.client.HttpResponseException;
+import org.apache.maven.wagon.TransferFailedException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void retryUpToTheConfiguredNumberOfTimes() {
+        RetryPolicy retryPolicy = new RetryPolicy(2, 100, 1000);
+
+        assertTrue(retryPolicy.shouldRetry(1));
+        assertTrue(retryPolicy.shouldRetry(2));
+        assertFalse(retryPolicy.shouldRetry(3));
+        assertFalse(new RetryPolicy(0, 100, 1000).shouldRetry(1));
+    }
+
+    @Test
+    public void doubleTheBackoffUpToTheMaximum() {
+        RetryPolicy retryPolicy = new RetryPolicy(10, 100, 1000);
+
+        assertEquals(100, retryPolicy.getMaxBackoffMillis(1));
+        assertEquals(200, retryPolicy.getMaxBackoffMillis(2));
+        assertEquals(800, retryPolicy.getMaxBackoffMillis(4));
+        assertEquals(1000, retryPolicy.getMaxBackoffMillis(5));
+        assertEquals(1000, retryPolicy.getMaxBackoffMillis(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void jitterStaysWithinTheBackoff() {
+        RetryPolicy retryPolicy = new RetryPolicy(10, 100, 1000);
+
+        for (int i = 0; i < 1000; i++) {
+            long backoff = retryPolicy.getBackoffMillis(3);
+            assertTrue(String.valueOf(backoff), backoff >= 0 && backoff <= 400);
+        }
+    }
+
+    @Test
+    public void onlyRetryTransientFailures() {
+        assertTrue(RetryPolicy.isTransient(new IOException("Could not transfer artifact a:b:jar:1.0 from/to thirdparty "
+                + "(http://localhost/): status code: 502, reason phrase: Bad Gateway (502)")));
+        assertTrue(RetryPolicy.isTransient(new IOException("POST http://localhost/bundle returned 429 slow down")));
+        assertTrue(RetryPolicy.isTransient(new IOException("deploy failed", new SocketTimeoutException("Read timed out"))));
+        assertTrue(RetryPolicy.isTransient(new IOException("deploy failed", new SocketException("Connection reset"))));
+
+        assertFalse(RetryPolicy.isTransient(new IOException("Could not transfer artifact a:b:jar:1.0 from/to thirdparty "
+                + "(http://localhost/): status code: 401, reason phrase: Unauthorized (401)")));
+        assertFalse(RetryPolicy.isTransient(new IOException("POST http://localhost/bundle returned 404 not found")));
+        assertFalse(RetryPolicy.isTransient(new UnknownHostException("nexus.example.com")));
+        assertFalse(RetryPolicy.isTransient(new IllegalStateException("no files")));
+    }
+
+    @Test
+    public void readTheStatusOfWagonFailures() {
+        assertEquals(502, RetryPolicy.getStatusCode(new IOException("deploy failed", new TransferFailedException(
+                "Failed to transfer file: http://localhost/a/b/1.0/b-1.0.jar. Return code is: 502, "
+                        + "ReasonPhrase: Bad Gateway."))));
+        assertEquals(503, RetryPolicy.getStatusCode(new TransferFailedException(
+                "Transfer failed for http://localhost/a/b/1.0/b-1.0.jar 503 Service Unavailable")));
+        assertEquals(401, RetryPolicy.getStatusCode(new TransferFailedException(
+                "Transfer failed for http://localhost/a/b/1.0/b-1.0.jar 401 Unauthorized")));
+        assertEquals(504, RetryPolicy.getStatusCode(new IOException("deploy failed",
+                new HttpResponseException(504, "Gateway Timeout"))));
+        assertEquals(RetryPolicy.NO_STATUS, RetryPolicy.getStatusCode(new IOException("no status 502 here")));
+
+        assertTrue(RetryPolicy.isTransient(new TransferFailedException(
+                "Failed to transfer file: http://localhost/b-1.0.jar. Return code is: 502, ReasonPhrase: Bad Gateway.")));
+        assertFalse(RetryPolicy.isTransient(new TransferFailedException(
+                "Failed to transfer file: http://localhost/b-1.0.jar. Return code is: 403, ReasonPhrase: Forbidden.")));
+        //the status wins over the message of a connection that was timed out by a proxy
+        assertFalse(RetryPolicy.isTransient(new TransferFailedException(
+                "Transfer failed for http://localhost/b-1.0.jar 400 Request timed out")));
+    }
+
+    @Test
+    public void onlyBackOffWhenTheRepositoryIsOverloaded() {
+        assertTrue(RetryPolicy.isOverloaded(new TransferFailedException(
+                "Failed to transfer file: http://localhost/b-1.0.jar. Return code is: 502, ReasonPhrase: Bad Gateway.")));
+        assertTrue(RetryPolicy.isOverloaded(new IOException("Could not transfer artifact a:b:jar:1.0 from/to "
+                + "thirdparty (http://localhost/): status code: 429, reason phrase: Too Many Requests (429)")));
+        assertTrue(RetryPolicy.isOverloaded(new IOException("deploy failed", new SocketTimeoutException("Read timed out"))));
+
+        assertFalse(RetryPolicy.isOverloaded(new TransferFailedException(
+                "Transfer failed for http://localhost/b-1.0.jar 500 Internal Server Error")));
+        assertFalse(RetryPolicy.isOverloaded(new IOException("deploy failed", new SocketException("Connection reset"))));
+        assertFalse(RetryPolicy.isOverloaded(new IOException("POST http://localhost/bundle returned 401 no")));
+    }
+}
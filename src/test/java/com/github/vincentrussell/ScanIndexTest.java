@@ -0,0 +1,131 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ScanIndexTest {
+
+    private static final String REPOSITORY_URL = "http://localhost/repository/thirdparty/";
+    private static final String OTHER_REPOSITORY_URL = "http://localhost/repository/mirror/";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void onlySkipDeployedDirectoriesThatDidNotChange() throws Exception {
+        File indexFile = new File(temporaryFolder.getRoot(), "scan.index");
+        Path repository = temporaryFolder.newFolder("repository").toPath();
+        Path deployed = repository.resolve("com/example/lib/1.0");
+        Path failed = repository.resolve("com/example/lib/2.0");
+        ScanIndex.Fingerprint fingerprint = new ScanIndex.Fingerprint(1000, 300, 900);
+        ScanIndex scanIndex = ScanIndex.load(indexFile, repository.toFile(), List.of(REPOSITORY_URL));
+        scanIndex.scanned(deployed, fingerprint);
+        scanIndex.scanned(failed, new ScanIndex.Fingerprint(2000, 300, 900));
+        scanIndex.completed(deployed, ScanIndex.Status.DEPLOYED);
+        scanIndex.completed(failed, ScanIndex.Status.FAILED);
+        scanIndex.save();
+
+        ScanIndex reloaded = ScanIndex.load(indexFile, repository.toFile(), List.of(REPOSITORY_URL));
+
+        assertEquals(new ScanIndex.Entry(fingerprint, ScanIndex.Status.DEPLOYED),
+                reloaded.getEntry(deployed, REPOSITORY_URL));
+        assertTrue(reloaded.skipUnchanged(deployed, fingerprint));
+        assertFalse(reloaded.skipUnchanged(deployed, new ScanIndex.Fingerprint(1001, 300, 900)));
+        //a file overwritten in place leaves the modification time of the directory alone
+        assertFalse(reloaded.skipUnchanged(deployed, new ScanIndex.Fingerprint(1000, 301, 900)));
+        assertFalse(reloaded.skipUnchanged(deployed, new ScanIndex.Fingerprint(1000, 300, 901)));
+        assertFalse(reloaded.skipUnchanged(failed, new ScanIndex.Fingerprint(2000, 300, 900)));
+        assertEquals(1, reloaded.getUnchangedCount());
+    }
+
+    @Test
+    public void onlySkipDirectoriesDeployedToEveryRepository() throws Exception {
+        File indexFile = new File(temporaryFolder.getRoot(), "scan.index");
+        Path repository = temporaryFolder.newFolder("repository").toPath();
+        Path deployed = repository.resolve("com/example/lib/1.0");
+        ScanIndex.Fingerprint fingerprint = new ScanIndex.Fingerprint(1000, 300, 900);
+        ScanIndex scanIndex = ScanIndex.load(indexFile, repository.toFile(), List.of(REPOSITORY_URL));
+        scanIndex.scanned(deployed, fingerprint);
+        scanIndex.completed(deployed, ScanIndex.Status.DEPLOYED);
+        scanIndex.save();
+
+        assertFalse(ScanIndex.load(indexFile, repository.toFile(), List.of(OTHER_REPOSITORY_URL))
+                .isUnchanged(deployed, fingerprint));
+        ScanIndex bothRepositories = ScanIndex.load(indexFile, repository.toFile(),
+                List.of(REPOSITORY_URL, OTHER_REPOSITORY_URL));
+        assertFalse(bothRepositories.isUnchanged(deployed, fingerprint));
+
+        bothRepositories.scanned(deployed, fingerprint);
+        bothRepositories.completed(deployed, ScanIndex.Status.DEPLOYED);
+        bothRepositories.save();
+
+        assertTrue(ScanIndex.load(indexFile, repository.toFile(), List.of(OTHER_REPOSITORY_URL))
+                .isUnchanged(deployed, fingerprint));
+        assertTrue(ScanIndex.load(indexFile, repository.toFile(), List.of(REPOSITORY_URL))
+                .isUnchanged(deployed, fingerprint));
+    }
+
+    @Test
+    public void deployFilesOverwrittenInPlaceAgain() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        File directory = new File(repository, "com/example/lib/1.0");
+        File jar = new File(directory, "lib-1.0.jar");
+        FileUtils.writeStringToFile(jar, "jar", StandardCharsets.UTF_8);
+        File indexFile = new File(temporaryFolder.getRoot(), "scan.index");
+        assertEquals(1, scanAndDeploy(repository, indexFile).size());
+        assertTrue(scanAndDeploy(repository, indexFile).isEmpty());
+
+        long directoryModified = directory.lastModified();
+        FileUtils.writeStringToFile(jar, "rebuilt jar", StandardCharsets.UTF_8);
+        assertTrue(directory.setLastModified(directoryModified));
+
+        assertEquals(1, scanAndDeploy(repository, indexFile).size());
+    }
+
+    @Test
+    public void onlyIndexDirectoriesWithoutSubdirectories() throws Exception {
+        File repository = temporaryFolder.newFolder("repository");
+        File parent = new File(repository, "com/example/lib/1.0");
+        File child = new File(parent, "nested");
+        FileUtils.writeStringToFile(new File(parent, "lib-1.0.jar"), "jar", StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(child, "nested.jar"), "nested", StandardCharsets.UTF_8);
+        ScanIndex scanIndex = ScanIndex.load(new File(temporaryFolder.getRoot(), "scan.index"), repository,
+                List.of(REPOSITORY_URL));
+
+        new RepositoryScanner(repository, scanIndex, null, 1).scan((directory, files) -> {
+            scanIndex.completed(directory.toPath(), ScanIndex.Status.DEPLOYED);
+            return true;
+        });
+
+        assertNull(scanIndex.getEntry(parent.toPath(), REPOSITORY_URL));
+        assertEquals(ScanIndex.Status.DEPLOYED, scanIndex.getEntry(child.toPath(), REPOSITORY_URL).status());
+    }
+
+    /**
+     * @return the directories the scan handed out, all of which are recorded as deployed
+     */
+    private List<File> scanAndDeploy(final File repository, final File indexFile) throws Exception {
+        ScanIndex scanIndex = ScanIndex.load(indexFile, repository, List.of(REPOSITORY_URL));
+        List<File> directories = new ArrayList<>();
+        new RepositoryScanner(repository, scanIndex, null, 1).scan((directory, files) -> {
+            directories.add(directory);
+            scanIndex.completed(directory.toPath(), ScanIndex.Status.DEPLOYED);
+            return true;
+        });
+        scanIndex.save();
+        return directories;
+    }
+}
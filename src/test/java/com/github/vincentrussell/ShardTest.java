@@ -0,0 +1,81 @@
+package com.github.vincentrussell;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ShardTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void everyArtifactBelongsToExactlyOneShard() {
+        Shard[] shards = {new Shard(0, 3), new Shard(1, 3), new Shard(2, 3)};
+
+        for (int i = 0; i < 100; i++) {
+            int containing = 0;
+            for (Shard shard : shards) {
+                containing += shard.contains("com.example", "lib-" + i) ? 1 : 0;
+            }
+            assertEquals(1, containing);
+        }
+    }
+
+    @Test
+    public void shardsAreAboutTheSameSize() {
+        int[] sizes = new int[4];
+        for (int group = 0; group < 50; group++) {
+            for (int artifact = 0; artifact < 200; artifact++) {
+                sizes[Shard.getIndex("org.example.group" + group, "artifact-" + artifact, sizes.length)]++;
+            }
+        }
+
+        for (int size : sizes) {
+            assertTrue(String.valueOf(size), size > 2300 && size < 2700);
+        }
+    }
+
+    @Test
+    public void theShardOfAnArtifactDoesNotChange() {
+        assertEquals(1, Shard.getIndex("com.github.vincentrussell", "cool-artifact", 5));
+        assertEquals(2, Shard.getIndex("org.apache.maven", "maven-core", 5));
+        assertTrue(new Shard(0, 1).contains("org.apache.maven", "maven-core"));
+        assertFalse(new Shard(1, 5).contains("org.apache.maven", "maven-core"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shardIndexMustBeLessThanShardCount() {
+        new Shard(3, 3);
+    }
+
+    @Test
+    public void assignVersionDirectoriesByTheirPath() throws Exception {
+        Path repository = temporaryFolder.newFolder("repository").toPath();
+        Shard shard = new Shard(1, 5);
+        Path otherShard = repository.resolve("org/apache/maven/maven-core/3.9.0");
+        Path ownShard = repository.resolve("com/github/vincentrussell/cool-artifact/1.0");
+        FileUtils.writeStringToFile(new File(otherShard.toFile(), "maven-core-3.9.0.pom"), "pom",
+                StandardCharsets.UTF_8);
+        FileUtils.writeStringToFile(new File(ownShard.toFile(), "cool-artifact-1.0.pom"), "pom",
+                StandardCharsets.UTF_8);
+
+        assertFalse(shard.containsDirectory(repository, otherShard));
+        assertTrue(shard.isPruned(repository, otherShard));
+        assertTrue(shard.containsDirectory(repository, ownShard));
+        assertFalse(shard.isPruned(repository, ownShard));
+        //without its pom a directory may as well be a group directory with artifacts of the shard below it
+        assertFalse(shard.isPruned(repository, repository.resolve("org/apache/maven")));
+        assertTrue(shard.containsDirectory(repository, repository.resolve("org/apache")));
+        assertFalse(new Shard(0, 1).isPruned(repository, otherShard));
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.vincentrussell;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+
+public class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    public void allowOneSecondWorthOfBurst() {
+        TokenBucket tokenBucket = new TokenBucket(10, now::get);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, tokenBucket.reserve(1));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), tokenBucket.reserve(1));
+    }
+
+    @Test
+    public void queueCallersBehindTheDebt() {
+        TokenBucket tokenBucket = new TokenBucket(1000, now::get);
+
+        assertEquals(TimeUnit.SECONDS.toNanos(1), tokenBucket.reserve(2000));
+        assertEquals(TimeUnit.SECONDS.toNanos(2), tokenBucket.reserve(1000));
+    }
+
+    @Test
+    public void refillAtTheRateUpToTheCapacity() {
+        TokenBucket tokenBucket = new TokenBucket(10, now::get);
+        tokenBucket.reserve(10);
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, tokenBucket.reserve(5));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), tokenBucket.reserve(1));
+
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertEquals(0, tokenBucket.reserve(10));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), tokenBucket.reserve(1));
+    }
+}
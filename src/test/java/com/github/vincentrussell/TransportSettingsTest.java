@@ -0,0 +1,59 @@
+package com.github.vincentrussell;
+
+import org.apache.maven.project.DefaultProjectBuildingRequest;
+import org.apache.maven.project.ProjectBuildingRequest;
+import org.eclipse.aether.DefaultRepositoryCache;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryCache;
+import org.eclipse.aether.RepositorySystemSession;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class TransportSettingsTest {
+
+    private final TransportSettings transportSettings = new TransportSettings(10, 0, 0, 0, false);
+
+    @Test
+    public void closeTheCacheOfTheRun() throws Exception {
+        ProjectBuildingRequest tuned = transportSettings.apply(newRequest(null));
+        RepositorySystemSession session = tuned.getRepositorySession();
+        RepositoryCache cache = session.getCache();
+        assertNotNull(cache);
+        AtomicInteger closed = new AtomicInteger();
+        cache.put(session, "state", (Closeable) closed::incrementAndGet);
+
+        TransportSettings.release(tuned);
+
+        assertEquals(1, closed.get());
+        assertNull(cache.get(session, "state"));
+    }
+
+    @Test
+    public void leaveTheCacheOfTheBuildAlone() throws Exception {
+        RepositoryCache buildCache = new DefaultRepositoryCache();
+        ProjectBuildingRequest tuned = transportSettings.apply(newRequest(buildCache));
+        RepositorySystemSession session = tuned.getRepositorySession();
+        assertSame(buildCache, session.getCache());
+        AtomicInteger closed = new AtomicInteger();
+        Closeable state = closed::incrementAndGet;
+        buildCache.put(session, "state", state);
+
+        TransportSettings.release(tuned);
+
+        assertEquals(0, closed.get());
+        assertSame(state, buildCache.get(session, "state"));
+    }
+
+    private static ProjectBuildingRequest newRequest(final RepositoryCache cache) {
+        DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+        session.setCache(cache);
+        return new DefaultProjectBuildingRequest().setRepositorySession(session);
+    }
+}